@@ -0,0 +1,45 @@
+package unionfind;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * ConcurrentUnionFind 中存储父节点 id 的数组，Java 21 及以上版本的实现（multi-release jar 中的 META-INF/versions/21）。
+ *
+ * 与 src 中 Java 8 的实现相比，shortcut 使用 weakCompareAndSetRelease：路径压缩只是一种优化，允许偶尔失败，
+ * 也不需要与其它内存操作建立完整的 happens-before 关系，因此不必使用带完整内存屏障的 compareAndSet。
+ * 根顶点的合并（link）依然使用 compareAndSet，保证并发合并的正确性。初始化时使用普通写，而不是逐个元素的 volatile 写。
+ */
+final class ParentArray {
+
+    private final AtomicIntegerArray parents;
+
+    ParentArray(int length) {
+        parents = new AtomicIntegerArray(length);
+        for (int i = 0; i < length; ++i) {
+            parents.setPlain(i, i); // parents 是 final 字段，构造完成后其中的元素对其它线程可见，无需 volatile 写
+        }
+    }
+
+    int length() {
+        return parents.length();
+    }
+
+    int get(int index) {
+        return parents.get(index);
+    }
+
+    /**
+     * 若 root 依然是根顶点，则将其父节点设置为 parent
+     * @return 如果设置成功，则返回 true；否则（root 已不是根顶点），返回 false
+     */
+    boolean link(int root, int parent) {
+        return parents.compareAndSet(root, root, parent);
+    }
+
+    /**
+     * 若 index 的父节点依然是 expected，则将其父节点修改为祖先节点 ancestor。只是路径压缩的优化，允许失败
+     */
+    void shortcut(int index, int expected, int ancestor) {
+        parents.weakCompareAndSetRelease(index, expected, ancestor);
+    }
+}
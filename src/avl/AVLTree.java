@@ -1,24 +1,40 @@
 package avl;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import map.Map;
 
 /**
  * AVL 树，含有自平衡机制的二分搜索树
  * 平衡二分搜索树的特点：对于任意一个 节点，其左、右子树的高度差不大于 1（即 <= 1，这就是“平衡”二字的含义）
+ * 每个节点额外记录以其为根的子树中的节点个数，从而支持 O(logn) 的 rank、select 查询。
  *
  * @param <K> key 的类型
  * @param <V> value 的类型
  */
 public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
+
+    /**
+     * 并行批量构建时，元素个数不超过该值的子树直接串行构建
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
     private class Node {
         K key;
         V val;
         Node left;
         Node right;
         int height;
+        int count; // 以该节点为根的子树中的节点个数
 
         public Node(K key, V val) {
             this.key = key;
@@ -26,6 +42,7 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
             this.left = null;
             this.right = null;
             this.height = 1;
+            this.count = 1;
         }
     }
 
@@ -39,9 +56,52 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
      */
     private int size;
 
+    /**
+     * 添加、删除时使用的路径栈，path[0, depth) 依次为从根顶点到当前节点路径上的节点。在各次操作之间复用，避免每次操作分配内存
+     */
+    private Node[] path;
+
+    /**
+     * 路径栈的容量。n 个节点的 AVL 树高度小于 1.44 * log2(n + 2)，元素个数不超过 Integer.MAX_VALUE 时，高度不超过 44，
+     * 所以路径栈不会溢出。push 在栈满时依然会扩容，不依赖于该上界
+     */
+    private static final int PATH_CAPACITY = 45;
+
     public AVLTree() {
         root = null;
         size = 0;
+        path = newPath(PATH_CAPACITY);
+    }
+
+    /**
+     * 由有序的键值对批量构建 AVL 树，时间复杂度为 O(n)。
+     * 每次选取中间的元素作为根顶点，左右两边的元素分别构建左右子树。左右子树的元素个数至多相差 1，因此高度也至多相差 1
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的 AVL 树
+     */
+    public static <K extends Comparable<K>, V> AVLTree<K, V> bulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        AVLTree<K, V> tree = new AVLTree<K, V>();
+        tree.root = tree.build(keys, values, 0, keys.length);
+        tree.size = keys.length;
+        return tree;
+    }
+
+    /**
+     * 与 bulkLoad 相同，但使用 fork-join 并行地构建左右子树
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的 AVL 树
+     */
+    public static <K extends Comparable<K>, V> AVLTree<K, V> parallelBulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        AVLTree<K, V> tree = new AVLTree<K, V>();
+        tree.root = ForkJoinPool.commonPool().invoke(tree.new BuildTask(keys, values, 0, keys.length));
+        tree.size = keys.length;
+        return tree;
     }
 
     @Override
@@ -49,24 +109,116 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return get(root, key) != null;
     }
 
+    /**
+     * 非递归实现：从根顶点向下查找，将经过的节点记录在 path 中；添加新节点后，再沿着 path 自底向上更新高度并进行平衡处理。
+     * 添加节点后，一旦某个节点的高度没有变化（包括旋转之后），其祖先节点的高度也都不会变化，此时停止平衡处理，只需继续更新子树的节点个数
+     */
     @Override
     public void put(K key, V value) {
-        root = put(root, key, value);
+        if (null == root) {
+            ++size;
+            root = new Node(key, value);
+            return;
+        }
+
+        int depth = 0;
+        Node node = root;
+        Node parent = null;
+        int cmp = 0;
+        while (null != node) {
+            cmp = key.compareTo(node.key);
+            if (0 == cmp) {
+                node.val = value; // key 已经存在，只更新值，树的结构不变
+                return;
+            }
+            push(depth++, node);
+            parent = node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        if (cmp < 0) {
+            parent.left = new Node(key, value);
+        } else {
+            parent.right = new Node(key, value);
+        }
+        ++size;
+
+        boolean balanced = false;
+        for (int i = depth - 1; i >= 0; --i) {
+            node = path[i];
+            ++node.count;
+            if (balanced) {
+                continue;
+            }
+
+            int oldHeight = node.height;
+            Node newNode = balance(node);
+            if (newNode != node) {
+                replaceChild(i, node, newNode);
+            }
+            balanced = newNode.height == oldHeight;
+        }
     }
 
+    /**
+     * 非递归实现：找到待删除的节点后，若其左右子树均不为空，则用右子树中的最小节点的键值代替它，转而删除该最小节点，
+     * 从而只需删除一个至多有一个子节点的节点；之后沿着 path 自底向上进行平衡处理，一旦某个子树的高度没有变化，则停止平衡处理
+     */
     @Override
     public V remove(K key) {
         if (null == root) {
             throw new IllegalArgumentException("AVL Tree is empty!");
         }
 
-        Node node = get(root, key);
+        int depth = 0;
+        Node node = root;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (0 == cmp) {
+                break;
+            }
+            push(depth++, node);
+            node = cmp < 0 ? node.left : node.right;
+        }
         if (null == node) {
             return null;
         }
 
-        root = remove(root, key);
-        return node.val;
+        V ret = node.val;
+        if (null != node.left && null != node.right) {
+            // 左右子树均不为空，则从右子树中选择最小的顶点代替 node
+            push(depth++, node);
+            Node minNode = node.right;
+            while (null != minNode.left) {
+                push(depth++, minNode);
+                minNode = minNode.left;
+            }
+            node.key = minNode.key;
+            node.val = minNode.val;
+            node = minNode;
+        }
+
+        // 此时 node 至多有一个子节点，用其子节点代替它
+        replaceChild(depth, node, null != node.left ? node.left : node.right);
+        node.left = node.right = null;
+        --size;
+
+        boolean balanced = false;
+        for (int i = depth - 1; i >= 0; --i) {
+            node = path[i];
+            --node.count;
+            if (balanced) {
+                continue;
+            }
+
+            int oldHeight = node.height;
+            Node newNode = balance(node);
+            if (newNode != node) {
+                replaceChild(i, node, newNode);
+            }
+            balanced = newNode.height == oldHeight;
+        }
+        return ret;
     }
 
     @Override
@@ -88,6 +240,118 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return size;
     }
 
+    /**
+     * @return 小于等于 key 的最大键。如果不存在，则返回 null
+     */
+    public K floor(K key) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (0 == cmp) {
+                return node.key;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                result = node; // node 是一个候选，继续在右子树中寻找更大的
+                node = node.right;
+            }
+        }
+        return null == result ? null : result.key;
+    }
+
+    /**
+     * @return 大于等于 key 的最小键。如果不存在，则返回 null
+     */
+    public K ceiling(K key) {
+        Node node = ceilingNode(key, true);
+        return null == node ? null : node.key;
+    }
+
+    /**
+     * @return 严格小于 key 的最大键。如果不存在，则返回 null
+     */
+    public K lower(K key) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                result = node;
+                node = node.right;
+            }
+        }
+        return null == result ? null : result.key;
+    }
+
+    /**
+     * @return 严格大于 key 的最小键。如果不存在，则返回 null
+     */
+    public K higher(K key) {
+        Node node = ceilingNode(key, false);
+        return null == node ? null : node.key;
+    }
+
+    /**
+     * 获取 key 的排名
+     * @param key 键（不必存在于树中）
+     * @return 树中小于 key 的键的个数
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node node = root;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp <= 0) {
+                if (0 == cmp) {
+                    return rank + count(node.left);
+                }
+                node = node.left;
+            } else {
+                rank += count(node.left) + 1; // 左子树及 node 都小于 key
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 获取排名为 index 的键，即第 index + 1 小的键
+     * @param index 排名，从 0 开始
+     * @return 排名为 index 的键
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        Node node = root;
+        while (true) {
+            int leftCount = count(node.left);
+            if (index < leftCount) {
+                node = node.left;
+            } else if (index > leftCount) {
+                index -= leftCount + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * 按键的升序，惰性地遍历 [from, to) 范围内的键值对。获取迭代器的时间复杂度为 O(logn)，之后每次 next 的均摊时间复杂度为 O(1)
+     * 注意：遍历过程中不能修改树
+     * @param from 起始键（包含）
+     * @param to   结束键（不包含）
+     * @return 范围内键值对的迭代器
+     */
+    public Iterator<Entry<K, V>> subMap(K from, K to) {
+        return new RangeIterator(from, to);
+    }
+
     /**
      * 验证当前创建的树是否满足 BST 的特点
      * @return
@@ -123,53 +387,61 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
     }
 
     /**
-     * 在以 node 为根顶点的树中，若不存在 key 对应的顶点，则添加新顶点，即键值对 (key, val)。否则，用 val 更新 key 对应的顶点
-     * 
-     * @param root 树的根顶点
-     * @param key  键
-     * @param val  值
-     * @return 添加节点后得到的新树的根顶点
+     * 更新节点 node 的高度，并对以 node 为根顶点的树进行平衡处理（node 的左右子树必须是平衡的）
+     * @param node 根顶点
+     * @return 平衡处理后树的根顶点
      */
-    private Node put(Node root, K key, V val) {
-        if (null == root) {
-            ++size;
-            return new Node(key, val); // 递归到底，则创建一个新的顶点
-        }
-
-        // 判断添加子树的方向，将新节点添加到树中
-        if (key.compareTo(root.key) < 0) { // 左子树
-            root.left = put(root.left, key, val);
-        } else if (key.compareTo(root.key) > 0) { // 右子树
-            root.right = put(root.right, key, val);
-        } else { // 新 key 与 root 的 key 相等
-            root.val = val;
-        }
-
-        root.height = Math.max(getHeight(root.left), getHeight(root.right)) + 1;
-
-        // 对树进行平衡处理
-        if (getBalanceFactor(root) > 1 && getBalanceFactor(root.left) >= 0) { // LL 类型
-            root = rightRotate(root);
-        } else if (getBalanceFactor(root) < -1 && getBalanceFactor(root.right) <= 0) { // RR 类型
-            root = leftRotate(root);
-        } else if (getBalanceFactor(root) > 1 && getBalanceFactor(root.left) <= 0) { // LR 类型
+    private Node balance(Node node) {
+        node.height = Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+
+        if (getBalanceFactor(node) > 1 && getBalanceFactor(node.left) >= 0) { // LL 类型
+            node = rightRotate(node);
+        } else if (getBalanceFactor(node) < -1 && getBalanceFactor(node.right) <= 0) { // RR 类型
+            node = leftRotate(node);
+        } else if (getBalanceFactor(node) > 1 && getBalanceFactor(node.left) <= 0) { // LR 类型
             // 先将根顶点的左子树左旋转，转换成 LL 类型
-            root.left = leftRotate(root.left);
+            node.left = leftRotate(node.left);
             // 然后，将根顶点对应的树进行右旋转
-            root = rightRotate(root);
-        } else if (getBalanceFactor(root) < -1 && getBalanceFactor(root.right) >= 0) { // RL 类型
+            node = rightRotate(node);
+        } else if (getBalanceFactor(node) < -1 && getBalanceFactor(node.right) >= 0) { // RL 类型
             // 先将根顶点的右子树右旋转，转换成 RR 类型
-            root.right = rightRotate(root.right);
+            node.right = rightRotate(node.right);
             // 然后，将根顶点对应的树进行左旋转
-            root = leftRotate(root);
+            node = leftRotate(node);
         }
 
-        int balanceFactor = getBalanceFactor(root);
-        if (Math.abs(balanceFactor) > 1) {
-            System.out.println(root.key + " is unbalanced!");
+        return node;
+    }
+
+    /**
+     * 创建长度为 length 的路径栈。Node 是泛型类的内部类，不能直接创建 Node[]，只能创建原始类型的数组再进行转换
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node[] newPath(int length) {
+        return (Node[]) new AVLTree.Node[length];
+    }
+
+    /**
+     * 将节点 node 记录在路径栈的第 depth 个位置，栈满时扩容
+     */
+    private void push(int depth, Node node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
         }
+        path[depth] = node;
+    }
 
-        return root;
+    /**
+     * 在路径栈第 depth 个节点的父节点（即 path[depth - 1]，depth 为 0 时即为根顶点的位置）中，用 newChild 代替子节点 oldChild
+     */
+    private void replaceChild(int depth, Node oldChild, Node newChild) {
+        if (0 == depth) {
+            root = newChild;
+        } else if (path[depth - 1].left == oldChild) {
+            path[depth - 1].left = newChild;
+        } else {
+            path[depth - 1].right = newChild;
+        }
     }
 
     /**
@@ -194,6 +466,10 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
         x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
 
+        // 更新子树的节点个数：x 代替 y 成为根顶点，子树的节点个数不变
+        x.count = y.count;
+        y.count = count(y.left) + count(y.right) + 1;
+
         return x;
     }
 
@@ -219,6 +495,10 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
         x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
 
+        // 更新子树的节点个数：x 代替 y 成为根顶点，子树的节点个数不变
+        x.count = y.count;
+        y.count = count(y.left) + count(y.right) + 1;
+
         return x;
     }
 
@@ -230,118 +510,148 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
      * @return key 对应的顶点。若能找到，则返回该顶点；否则，返回 null 
      */
     private Node get(Node root, K key) {
-        if (null == root) {
-            return null;
+        Node node = root;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) { // 左子树
+                node = node.left;
+            } else if (cmp > 0) { // 右子树
+                node = node.right;
+            } else { // key 对应的顶点即为 node
+                return node;
+            }
         }
+        return null;
+    }
 
-        if (key.compareTo(root.key) < 0) { // 左子树
-            return get(root.left, key);
-        } else if (key.compareTo(root.key) > 0) {// 右子树
-            return get(root.right, key);
-        } else { // key 对应的顶点即为 root
-            return root;
+    /**
+     * 获取大于等于 key（inclusive 为 true）或严格大于 key（inclusive 为 false）的最小节点
+     */
+    private Node ceilingNode(K key, boolean inclusive) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0 || (inclusive && 0 == cmp)) {
+                result = node; // node 是一个候选，继续在左子树中寻找更小的
+                node = node.left;
+            } else {
+                node = node.right;
+            }
         }
+        return result;
     }
 
     /**
-     * 返回以 root 为根顶点的树中的最小值
-     * @param root 根顶点
-     * @return 最小值对应的节点
+     * [from, to) 范围内的迭代器。栈中保存尚未访问的、键大于等于 from 的祖先节点，栈顶即为下一个节点
      */
-    private Node getMinNode(Node root) {
-        if (null == root) {
-            return null;
+    private class RangeIterator implements Iterator<Entry<K, V>> {
+        private LinkedList<Node> stack = new LinkedList<Node>();
+        private K to;
+
+        public RangeIterator(K from, K to) {
+            this.to = to;
+
+            // 从根节点出发寻找 from，沿途将键大于等于 from 的节点入栈
+            Node node = root;
+            while (null != node) {
+                if (from.compareTo(node.key) <= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
         }
 
-        if (null == root.left) {
-            return root;
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && stack.peek().key.compareTo(to) < 0;
         }
 
-        return getMinNode(root.left);
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Node node = stack.pop();
+            // 下一个节点为右子树中的最小节点，将右子树的左链入栈
+            for (Node cur = node.right; null != cur; cur = cur.left) {
+                stack.push(cur);
+            }
+            return new SimpleImmutableEntry<K, V>(node.key, node.val);
+        }
     }
 
     /**
-     * 在以 root 为根顶点的树中，删除最小节点，并返回新树的根顶点
-     * @param root 树的根顶点
-     * @return 删除后，新树的根顶点
+     * 将 [lo, hi) 中的键值对构建成 AVL 树
+     * @return 树的根顶点
      */
-    private Node removeMinNode(Node root) {
-        if (null == root) {
+    private Node build(K[] keys, V[] values, int lo, int hi) {
+        if (lo == hi) {
             return null;
         }
 
-        // 找到最小值
-        if (null == root.left) {
-            Node ret = root.right;
-            root.right = null;
-            --size;
-            return ret;
-        }
-
-        root.left = removeMinNode(root.left);
-
-        return root;
+        int mid = lo + (hi - lo) / 2;
+        Node node = new Node(keys[mid], values[mid]);
+        node.left = build(keys, values, lo, mid);
+        node.right = build(keys, values, mid + 1, hi);
+        node.height = Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+        node.count = hi - lo;
+        return node;
     }
 
     /**
-     * 在以 root 为根顶点的树中，删除 key 对应的根顶点
-     * @param root 树的根顶点
-     * @param key 待删除顶点对应的 键值
-     * @return 删除顶点后，新树的根顶点
+     * 并行构建的子任务，负责将 [lo, hi) 中的键值对构建成 AVL 树
      */
-    private Node remove(Node root, K key) {
-        Node ret = root; // 返回值，即新树的根顶点
+    private class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private K[] keys;
+        private V[] values;
+        private int lo;
+        private int hi;
+
+        public BuildTask(K[] keys, V[] values, int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
+        }
 
-        if (key.compareTo(root.key) < 0) { // 左子树
-            root.left = remove(root.left, key);
-        } else if (key.compareTo(root.key) > 0) { // 右子树
-            root.right = remove(root.right, key);
-        } else { // root 即为 key 对应的节点
-            // 判断 root 左右子树是否存在，根据不同情况采取不同策略
-            if (null == root.left) { // 左子树为空
-                ret = root.right;
-                root.right = null;
-                --size;
-            } else if (null == root.right) { // 右子树为空
-                ret = root.left;
-                root.left = null;
-                --size;
-            } else {
-                // 左右子树均不为空，则从右子树中选择最小的顶点代替 root
-                Node minNode = getMinNode(root.right);
-                // minNode.right = removeMinNode(root.right); // 原来的方式，这种方式在 removeMinNode 时会发生不平衡。一种解决办法是，在 removeMinNode 中添加平衡处理；另一种方法是，复用 remove
-                minNode.right = remove(root.right, minNode.key); // 复用 remove 函数删除最小的顶点，从而保证在删除最小顶点时依然平衡
-                minNode.left = root.left;
-                root.left = root.right = null;
-                ret = minNode;
+        @Override
+        protected Node compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                return build(keys, values, lo, hi);
             }
-        }
 
-        if (null == ret) {
-            return null;
+            int mid = lo + (hi - lo) / 2;
+            BuildTask left = new BuildTask(keys, values, lo, mid);
+            BuildTask right = new BuildTask(keys, values, mid + 1, hi);
+            invokeAll(left, right);
+
+            Node node = new Node(keys[mid], values[mid]);
+            node.left = left.join();
+            node.right = right.join();
+            node.height = Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+            node.count = hi - lo;
+            return node;
         }
+    }
 
-        // 更新 ret 节点的高度
-        ret.height = Math.max(getHeight(ret.left), getHeight(ret.right)) + 1;
-
-        // 进行平衡处理
-        if (getBalanceFactor(ret) > 1 && getBalanceFactor(ret.left) >= 0) { // LL 类型
-            ret = rightRotate(ret);
-        } else if (getBalanceFactor(ret) < -1 && getBalanceFactor(ret.right) <= 0) { // RR 类型
-            ret = leftRotate(ret);
-        } else if (getBalanceFactor(ret) > 1 && getBalanceFactor(ret.left) <= 0) { // LR 类型
-            // 先对 ret 的左子树进行左旋转，转换成 LL 类型
-            ret.left = leftRotate(ret.left);
-            // 然后，对 ret 进行右旋转
-            ret = rightRotate(ret);
-        } else if (getBalanceFactor(ret) < -1 && getBalanceFactor(ret.right) >= 0) { // RL 类型
-            // 先对 ret 的右子树进行右旋转，转换成 RR 类型
-            ret.right = rightRotate(ret.right);
-            // 然后，再对 ret 进行左旋转
-            ret = leftRotate(ret);
+    /**
+     * 检查批量构建的参数：keys 与 values 的长度相同，并且 keys 严格递增
+     */
+    private static <K extends Comparable<K>, V> void checkSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length!");
+        }
+        for (int i = 1; i < keys.length; ++i) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing!");
+            }
         }
-
-        return ret;
     }
 
     /**
@@ -375,6 +685,19 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return node.height;
     }
 
+    /**
+     * 获取以 node 为根的子树中的节点个数
+     * @param node 节点
+     * @return 子树中的节点个数
+     */
+    private int count(Node node) {
+        if (null == node) {
+            return 0;
+        }
+
+        return node.count;
+    }
+
     /**
      * 获取节点 node 的平衡因子
      * @param node 节点
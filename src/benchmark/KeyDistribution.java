@@ -0,0 +1,116 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试中使用的键分布
+ */
+public enum KeyDistribution {
+
+    /**
+     * 均匀分布，n 个互不相同的随机整数
+     */
+    UNIFORM,
+
+    /**
+     * Zipf 分布（s = 1），少数热点键被频繁访问。插入时使用 n 个互不相同的键，查询时按照 Zipf 分布选择键
+     */
+    ZIPFIAN,
+
+    /**
+     * 有序递增的键，二分搜索树会退化成链表，平衡树会频繁旋转
+     */
+    SORTED,
+
+    /**
+     * 对哈希表不友好的键：将 i 循环左移 16 位，n <= 65536 时低 16 位全为 0，只有高位不同，直接用低位取模、未进行扰动的哈希表会产生大量冲突。
+     * 循环移位是一一映射，n 更大时键依然互不相同，此时低 16 位只有 n / 65536 种取值
+     */
+    ADVERSARIAL;
+
+    /**
+     * 生成 n 个互不相同的键，用于 put 操作
+     *
+     * @param n      键的个数
+     * @param random 随机数生成器
+     * @return 键数组
+     */
+    public Integer[] keys(int n, Random random) {
+        Integer[] keys = new Integer[n];
+        switch (this) {
+        case SORTED:
+            for (int i = 0; i < n; ++i) {
+                keys[i] = i;
+            }
+            break;
+        case ADVERSARIAL:
+            for (int i = 0; i < n; ++i) {
+                keys[i] = Integer.rotateLeft(i, 16);
+            }
+            shuffle(keys, random);
+            break;
+        default: // UNIFORM、ZIPFIAN：使用 [0, n) 的一个随机排列，保证互不相同
+            for (int i = 0; i < n; ++i) {
+                keys[i] = i;
+            }
+            shuffle(keys, random);
+            for (int i = 0; i < n; ++i) {
+                keys[i] = keys[i] * 31 + 7; // 让键不再连续
+            }
+            break;
+        }
+        return keys;
+    }
+
+    /**
+     * 根据已插入的键，生成 count 个待查询的键。除了 ZIPFIAN 以外，查询顺序与插入顺序一致
+     *
+     * @param keys   已插入的键
+     * @param count  查询次数
+     * @param random 随机数生成器
+     * @return 待查询的键数组
+     */
+    public Integer[] lookups(Integer[] keys, int count, Random random) {
+        Integer[] lookups = new Integer[count];
+        if (ZIPFIAN != this) {
+            for (int i = 0; i < count; ++i) {
+                lookups[i] = keys[i % keys.length];
+            }
+            return lookups;
+        }
+
+        // 计算 Zipf 分布的累积分布函数，然后通过二分查找进行抽样
+        int n = keys.length;
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+
+        for (int i = 0; i < count; ++i) {
+            double target = random.nextDouble() * sum;
+            int left = 0;
+            int right = n - 1;
+            while (left < right) {
+                int mid = left + (right - left) / 2;
+                if (cdf[mid] < target) {
+                    left = mid + 1;
+                } else {
+                    right = mid;
+                }
+            }
+            lookups[i] = keys[left];
+        }
+        return lookups;
+    }
+
+    private static void shuffle(Integer[] arr, Random random) {
+        for (int i = arr.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Map、Set、HashTable 各个实现的基准测试。
+ * 对于每一种数据结构、键分布、数据规模，分别测试 put、get、contains、remove 的吞吐量（ops/s）以及平均每次操作分配的内存（B/op）。
+ *
+ * 用法：java benchmark.Main [数据规模 ...]，如：java benchmark.Main 1000 100000 10000000
+ *
+ * 使用 trees 模式时，只测试 RBTree、AVLTree 的 put、remove，输出每次操作的平均耗时（ns/op）及分配的内存（B/op），
+ * 用于对比平衡树实现修改前后的性能，如：java benchmark.Main trees 1000000
+ */
+public class Main {
+
+    /**
+     * 默认的数据规模
+     */
+    private static final int[] DEFAULT_SIZES = { 1000, 100000, 1000000 };
+
+    /**
+     * 预热轮数，让 JIT 完成编译
+     */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * 正式测试的轮数，结果取平均值
+     */
+    private static final int MEASURE_ROUNDS = 3;
+
+    private static final String[] OPERATIONS = { "put", "get", "contains", "remove" };
+
+    /**
+     * trees 模式下测试的平衡树
+     */
+    private static final String[] TREES = { "RBTree", "AVLTree" };
+
+    /**
+     * trees 模式下正式测试的轮数。平衡树的 put、remove 相差不大，需要更多轮次来减小误差
+     */
+    private static final int TREE_MEASURE_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        boolean trees = args.length > 0 && "trees".equals(args[0]);
+        int offset = trees ? 1 : 0;
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > offset) {
+            sizes = new int[args.length - offset];
+            for (int i = 0; i < sizes.length; ++i) {
+                sizes[i] = Integer.parseInt(args[i + offset]);
+            }
+        }
+
+        if (trees) {
+            compareTrees(sizes);
+            return;
+        }
+
+        System.out.println(String.format("%-20s %-12s %10s %-9s %15s %12s", "structure", "keys", "size", "op", "ops/s", "B/op"));
+        for (int size : sizes) {
+            for (KeyDistribution distribution : KeyDistribution.values()) {
+                Random random = new Random(size);
+                Integer[] keys = distribution.keys(size, random);
+                Integer[] lookups = distribution.lookups(keys, size, random);
+
+                for (Structure structure : Structure.all()) {
+                    if (size > structure.maxSize(distribution)) {
+                        System.out.println(String.format("%-20s %-12s %10d %-9s %15s", structure.name, distribution, size, "-", "skipped"));
+                        continue;
+                    }
+
+                    for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+                        run(structure.factory.get(), keys, lookups);
+                    }
+
+                    double[][] total = new double[OPERATIONS.length][2];
+                    for (int i = 0; i < MEASURE_ROUNDS; ++i) {
+                        double[][] result = run(structure.factory.get(), keys, lookups);
+                        for (int op = 0; op < OPERATIONS.length; ++op) {
+                            total[op][0] += result[op][0];
+                            total[op][1] += result[op][1];
+                        }
+                    }
+
+                    for (int op = 0; op < OPERATIONS.length; ++op) {
+                        System.out.println(String.format("%-20s %-12s %10d %-9s %15.0f %12.1f", structure.name, distribution,
+                                size, OPERATIONS[op], total[op][0] / MEASURE_ROUNDS, total[op][1] / MEASURE_ROUNDS));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 只测试 RBTree、AVLTree 的 put、remove，键分布为 UNIFORM 与 SORTED（平衡树旋转最频繁的情况）
+     */
+    private static void compareTrees(int[] sizes) {
+        System.out.println(String.format("%-20s %-12s %10s %-9s %12s %12s", "structure", "keys", "size", "op", "ns/op", "B/op"));
+        for (int size : sizes) {
+            for (KeyDistribution distribution : new KeyDistribution[] { KeyDistribution.UNIFORM, KeyDistribution.SORTED }) {
+                Random random = new Random(size);
+                Integer[] keys = distribution.keys(size, random);
+                Integer[] lookups = distribution.lookups(keys, size, random);
+
+                for (String name : TREES) {
+                    Structure structure = Structure.named(name);
+                    for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+                        run(structure.factory.get(), keys, lookups);
+                    }
+
+                    // 各轮取耗时最短的一轮，排除 GC 停顿等干扰
+                    double[][] best = new double[OPERATIONS.length][];
+                    for (int i = 0; i < TREE_MEASURE_ROUNDS; ++i) {
+                        double[][] result = run(structure.factory.get(), keys, lookups);
+                        for (int op = 0; op < OPERATIONS.length; ++op) {
+                            if (null == best[op] || result[op][0] > best[op][0]) {
+                                best[op] = result[op];
+                            }
+                        }
+                    }
+
+                    for (int op : new int[] { 0, 3 }) { // put、remove
+                        System.out.println(String.format("%-20s %-12s %10d %-9s %12.1f %12.1f", name, distribution, size,
+                                OPERATIONS[op], 1e9 / best[op][0], best[op][1]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在 target 上依次执行 put、get、contains、remove
+     *
+     * @return 每种操作的 {吞吐量（ops/s）, 平均每次操作分配的字节数}
+     */
+    private static double[][] run(Target target, Integer[] keys, Integer[] lookups) {
+        double[][] result = new double[OPERATIONS.length][];
+        long checksum = 0; // 使用操作的结果，避免被 JIT 优化掉
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (Integer key : keys) {
+            target.put(key, key);
+        }
+        result[0] = measure(keys.length, start, bytes);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (Integer key : lookups) {
+            Integer val = target.get(key);
+            checksum += null == val ? 0 : val;
+        }
+        result[1] = measure(lookups.length, start, bytes);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (Integer key : lookups) {
+            checksum += target.contains(key) ? 1 : 0;
+        }
+        result[2] = measure(lookups.length, start, bytes);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (Integer key : keys) {
+            Integer val = target.remove(key);
+            checksum += null == val ? 0 : val;
+        }
+        result[3] = measure(keys.length, start, bytes);
+
+        if (0 != target.size() || 0 == checksum && keys.length > 1) {
+            throw new IllegalStateException("Unexpected result!");
+        }
+        return result;
+    }
+
+    private static double[] measure(int count, long start, long bytes) {
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        long allocated = bytes < 0 ? 0 : allocatedBytes() - bytes;
+        return new double[] { count * 1e9 / elapsed, (double) allocated / count };
+    }
+
+    /**
+     * 获取当前线程累计分配的字节数。如果 JVM 不支持，则返回 -1
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Map、Set、HashTable 各个实现的 JMH 基准测试，与 Main 使用相同的数据结构（Structure）和键分布（KeyDistribution）。
+ * 结果为每次操作的平均耗时（ns/op），加上 -prof gc 参数可以得到每次操作分配的内存（gc.alloc.rate.norm，B/op）。
+ *
+ * 用法：java -cp "benchmarks/target/datastructures-benchmarks-1.0-SNAPSHOT.jar:benchmarks/target/lib/*" org.openjdk.jmh.Main
+ * MapBenchmark -prof gc -p structure=RBTree,AVLTree -p size=1000000
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MapBenchmark {
+
+    @Param({ "LinkedListMap", "BSTMap", "AVLTree", "AVLMap", "RBTree", "BPlusTree", "LinkedListSet", "BSTSet", "AVLSet",
+            "LinkedHashTable", "TreeHashTable", "OpenHashTable", "ConcurrentHashTable" })
+    public String structure;
+
+    @Param({ "UNIFORM", "ZIPFIAN", "SORTED", "ADVERSARIAL" })
+    public KeyDistribution distribution;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int size;
+
+    private Structure target;
+
+    /**
+     * 已插入 full 中的键
+     */
+    private Integer[] keys;
+
+    /**
+     * 不在 full 中的键，用于 putRemove 的稳态更新
+     */
+    private Integer[] others;
+
+    private Integer[] lookups;
+
+    /**
+     * 包含 keys 中全部键的数据结构，用于查询
+     */
+    private Target full;
+
+    /**
+     * 从空开始插入 keys 的数据结构，插满后重新创建
+     */
+    private Target filling;
+
+    /**
+     * putRemove 中已插入 keys 的个数为 size，每次插入 others 中的一个键并删除 keys 中的一个键，然后交换两者
+     */
+    private Target churning;
+
+    private int putIndex;
+    private int lookupIndex;
+    private int churnIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        target = Structure.named(structure);
+        if (size > target.maxSize(distribution)) {
+            // JMH 的 @Param 是笛卡尔积，退化的组合直接失败，运行时可以用 -p 指定需要的组合
+            throw new IllegalStateException(structure + " degenerates to a linked list on " + distribution
+                    + ", size " + size + " > " + Structure.DEGENERATE_MAX_SIZE);
+        }
+
+        Random random = new Random(size);
+        Integer[] all = distribution.keys(2 * size, random);
+        keys = new Integer[size];
+        others = new Integer[size];
+        if (KeyDistribution.SORTED == distribution) {
+            // 保持插入顺序递增：偶数位置插入，奇数位置用于稳态更新
+            for (int i = 0; i < size; ++i) {
+                keys[i] = all[2 * i];
+                others[i] = all[2 * i + 1];
+            }
+        } else {
+            System.arraycopy(all, 0, keys, 0, size);
+            System.arraycopy(all, size, others, 0, size);
+        }
+        lookups = distribution.lookups(keys, size, random);
+
+        full = target.factory.get();
+        churning = target.factory.get();
+        for (Integer key : keys) {
+            full.put(key, key);
+            churning.put(key, key);
+        }
+        filling = target.factory.get();
+        putIndex = 0;
+        lookupIndex = 0;
+        churnIndex = 0;
+    }
+
+    @Benchmark
+    public Integer get() {
+        Integer key = lookups[lookupIndex];
+        lookupIndex = lookupIndex + 1 == lookups.length ? 0 : lookupIndex + 1;
+        return full.get(key);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        Integer key = lookups[lookupIndex];
+        lookupIndex = lookupIndex + 1 == lookups.length ? 0 : lookupIndex + 1;
+        return full.contains(key);
+    }
+
+    /**
+     * 从空开始依次插入 keys，插满之后换一个新的空结构。重新创建是 O(1) 的，旧结构由 GC 回收，其开销会计入本项测试
+     */
+    @Benchmark
+    public int put() {
+        if (putIndex == keys.length) {
+            filling = target.factory.get();
+            putIndex = 0;
+        }
+        Integer key = keys[putIndex++];
+        filling.put(key, key);
+        return putIndex;
+    }
+
+    /**
+     * 规模保持为 size 的稳态更新：插入一个新键、删除一个旧键，每次调用包含两个操作
+     */
+    @Benchmark
+    public Integer putRemove() {
+        int i = churnIndex;
+        churnIndex = churnIndex + 1 == keys.length ? 0 : churnIndex + 1;
+        Integer in = others[i];
+        Integer out = keys[i];
+        others[i] = out;
+        keys[i] = in;
+        churning.put(in, in);
+        return churning.remove(out);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import avl.AVLMap;
+import avl.AVLSet;
+import avl.AVLTree;
+import bplustree.BPlusTree;
+import hashtable.ConcurrentHashTable;
+import hashtable.LinkedHashTable;
+import hashtable.OpenHashTable;
+import hashtable.TreeHashTable;
+import map.BSTMap;
+import map.LinkedListMap;
+import rbtree.RBTree;
+import set.BSTSet;
+import set.LinkedListSet;
+
+/**
+ * 参与基准测试的数据结构，供 Main 与 MapBenchmark（JMH）共用
+ */
+class Structure {
+
+    /**
+     * 退化成链表的数据结构（LinkedListMap、LinkedListSet，以及有序插入的 BSTMap、BSTSet）所能测试的最大规模，
+     * 避免 O(n^2) 耗时及递归过深导致栈溢出
+     */
+    static final int DEGENERATE_MAX_SIZE = 10000;
+
+    private static final List<Structure> ALL;
+
+    static {
+        List<Structure> structures = new ArrayList<Structure>();
+        structures.add(new Structure("LinkedListMap", () -> Target.of(new LinkedListMap<Integer, Integer>()), false, true));
+        structures.add(new Structure("BSTMap", () -> Target.of(new BSTMap<Integer, Integer>()), true, false));
+        structures.add(new Structure("AVLTree", () -> Target.of(new AVLTree<Integer, Integer>()), false, false));
+        structures.add(new Structure("AVLMap", () -> Target.of(new AVLMap<Integer, Integer>()), false, false));
+        structures.add(new Structure("RBTree", () -> Target.of(new RBTree<Integer, Integer>()), false, false));
+        structures.add(new Structure("BPlusTree", () -> Target.of(new BPlusTree<Integer, Integer>()), false, false));
+        structures.add(new Structure("LinkedListSet", () -> Target.of(new LinkedListSet<Integer>()), false, true));
+        structures.add(new Structure("BSTSet", () -> Target.of(new BSTSet<Integer>()), true, false));
+        structures.add(new Structure("AVLSet", () -> Target.of(new AVLSet<Integer>()), false, false));
+        structures.add(new Structure("LinkedHashTable", () -> Target.of(new LinkedHashTable<Integer, Integer>()), false, false));
+        structures.add(new Structure("TreeHashTable", () -> Target.of(new TreeHashTable<Integer, Integer>()), false, false));
+        structures.add(new Structure("OpenHashTable", () -> Target.of(new OpenHashTable<Integer, Integer>()), false, false));
+        structures.add(new Structure("ConcurrentHashTable", () -> Target.of(new ConcurrentHashTable<Integer, Integer>()), false, false));
+        ALL = Collections.unmodifiableList(structures);
+    }
+
+    final String name;
+    final Supplier<Target> factory;
+    private final boolean degenerateOnSorted; // 有序插入时是否退化成链表
+    private final boolean alwaysDegenerate; // 是否总是线性查找
+
+    private Structure(String name, Supplier<Target> factory, boolean degenerateOnSorted, boolean alwaysDegenerate) {
+        this.name = name;
+        this.factory = factory;
+        this.degenerateOnSorted = degenerateOnSorted;
+        this.alwaysDegenerate = alwaysDegenerate;
+    }
+
+    /**
+     * @return 在 distribution 分布下所能测试的最大规模
+     */
+    int maxSize(KeyDistribution distribution) {
+        if (alwaysDegenerate || (degenerateOnSorted && KeyDistribution.SORTED == distribution)) {
+            return DEGENERATE_MAX_SIZE;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    static List<Structure> all() {
+        return ALL;
+    }
+
+    static Structure named(String name) {
+        for (Structure structure : ALL) {
+            if (structure.name.equals(name)) {
+                return structure;
+            }
+        }
+        throw new IllegalArgumentException("Unknown structure: " + name);
+    }
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import hashtable.HashTable;
+import map.Map;
+import set.Set;
+
+/**
+ * 被测试的数据结构。将 map.Map、set.Set 与 hashtable.HashTable 适配成同一组操作，便于使用相同的流程进行测试
+ */
+public interface Target {
+
+    public void put(Integer key, Integer value);
+
+    public Integer get(Integer key);
+
+    public Integer remove(Integer key);
+
+    public boolean contains(Integer key);
+
+    public int size();
+
+    public static Target of(final Map<Integer, Integer> map) {
+        return new Target() {
+            @Override
+            public void put(Integer key, Integer value) {
+                map.put(key, value);
+            }
+
+            @Override
+            public Integer get(Integer key) {
+                return map.get(key);
+            }
+
+            @Override
+            public Integer remove(Integer key) {
+                return map.remove(key);
+            }
+
+            @Override
+            public boolean contains(Integer key) {
+                return map.contains(key);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    public static Target of(final HashTable<Integer, Integer> hashTable) {
+        return new Target() {
+            @Override
+            public void put(Integer key, Integer value) {
+                hashTable.put(key, value);
+            }
+
+            @Override
+            public Integer get(Integer key) {
+                return hashTable.get(key);
+            }
+
+            @Override
+            public Integer remove(Integer key) {
+                return hashTable.remove(key);
+            }
+
+            @Override
+            public boolean contains(Integer key) {
+                return hashTable.contains(key);
+            }
+
+            @Override
+            public int size() {
+                return hashTable.size();
+            }
+        };
+    }
+
+    /**
+     * 集合只保存键：put 对应 add，get 在包含 key 时返回 key 本身
+     */
+    public static Target of(final Set<Integer> set) {
+        return new Target() {
+            @Override
+            public void put(Integer key, Integer value) {
+                set.add(key);
+            }
+
+            @Override
+            public Integer get(Integer key) {
+                return set.contains(key) ? key : null;
+            }
+
+            @Override
+            public Integer remove(Integer key) {
+                if (!set.contains(key)) {
+                    return null;
+                }
+                set.remove(key);
+                return key;
+            }
+
+            @Override
+            public boolean contains(Integer key) {
+                return set.contains(key);
+            }
+
+            @Override
+            public int size() {
+                return set.size();
+            }
+        };
+    }
+}
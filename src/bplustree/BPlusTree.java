@@ -0,0 +1,518 @@
+package bplustree;
+
+import java.util.function.BiConsumer;
+
+import map.Map;
+
+/**
+ * B+ 树，每个节点可以存放多个键，适用于数据量很大的有序映射。
+ *
+ * 二分搜索树（BSTMap、AVLTree、RBTree）中每个键对应一个节点对象，查找时每经过一层，几乎都要访问一块新的内存（一次缓存未命中），
+ * 树高为 O(log2 n)。B+ 树的每个节点将键（以及值或子节点）存放在连续的数组中，一个节点最多有 order 个子节点，
+ * 树高只有 O(log_order n)，节点内部使用二分查找，访问的内存更少、更连续。
+ *  （1）内部节点只存放用于导航的键，第 i 个子节点中的键 k 满足 keys[i - 1] <= k < keys[i]
+ *  （2）所有的键值对都存放在叶子节点中，叶子节点之间通过 next 连接成一个有序的链表，范围查询时只需找到起点，然后顺着链表遍历
+ *  （3）除根节点外，每个节点至少含有 maxKeys / 2 个键，删除后不足时，向兄弟节点借一个键或者与兄弟节点合并
+ *
+ * @param <K> key 的类型
+ * @param <V> value 的类型
+ */
+public class BPlusTree<K extends Comparable<K>, V> implements Map<K, V> {
+
+    /**
+     * 默认的阶数（内部节点最多含有的子节点个数）
+     */
+    public static final int DEFAULT_ORDER = 64;
+
+    /**
+     * 节点的基类，keys[0, size) 为节点中有效的键。数组的长度比 maxKeys 多 1，以便插入后再分裂
+     */
+    private static abstract class Node {
+        Object[] keys;
+        int size;
+    }
+
+    private static class Leaf extends Node {
+        Object[] values;
+        /**
+         * 右边的下一个叶子节点
+         */
+        Leaf next;
+
+        public Leaf(int maxKeys) {
+            keys = new Object[maxKeys + 1];
+            values = new Object[maxKeys + 1];
+        }
+    }
+
+    private static class Inner extends Node {
+        /**
+         * 子节点，children[0, size] 有效
+         */
+        Node[] children;
+
+        public Inner(int maxKeys) {
+            keys = new Object[maxKeys + 1];
+            children = new Node[maxKeys + 2];
+        }
+    }
+
+    /**
+     * 删除时表示键不存在（值本身可能为 null，因此不能用 null 表示）
+     */
+    private static final Object NOT_FOUND = new Object();
+
+    /**
+     * 每个节点最多、最少含有的键的个数（根节点除外）
+     */
+    private final int maxKeys;
+    private final int minKeys;
+
+    private Node root;
+
+    private int size;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order 阶数，即内部节点最多含有的子节点个数，至少为 4
+     */
+    public BPlusTree(int order) {
+        if (order < 4) {
+            throw new IllegalArgumentException("Order must be at least 4!");
+        }
+        maxKeys = order - 1;
+        minKeys = maxKeys / 2;
+        root = new Leaf(maxKeys);
+        size = 0;
+    }
+
+    /**
+     * 由有序的键值对批量构建 B+ 树，时间复杂度为 O(n)。
+     * 自底向上构建：先将键值对依次填入叶子节点，再为每一层节点构建父节点，直到只剩一个节点。每一层的元素平均分配到各个节点中，
+     * 从而保证每个节点的键的个数都满足要求
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @param order  阶数
+     * @return 构建好的 B+ 树
+     */
+    public static <K extends Comparable<K>, V> BPlusTree<K, V> bulkLoad(K[] keys, V[] values, int order) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length!");
+        }
+        for (int i = 1; i < keys.length; ++i) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing!");
+            }
+        }
+
+        BPlusTree<K, V> tree = new BPlusTree<K, V>(order);
+        int n = keys.length;
+        if (0 == n) {
+            return tree;
+        }
+
+        // 构建叶子节点
+        int count = (n + tree.maxKeys - 1) / tree.maxKeys;
+        Node[] level = new Node[count];
+        Object[] firstKeys = new Object[count]; // 各个节点所在子树中最小的键，即父节点中的分隔键
+        Leaf previous = null;
+        for (int j = 0, from = 0; j < count; ++j) {
+            int length = n / count + (j < n % count ? 1 : 0);
+            Leaf leaf = new Leaf(tree.maxKeys);
+            System.arraycopy(keys, from, leaf.keys, 0, length);
+            System.arraycopy(values, from, leaf.values, 0, length);
+            leaf.size = length;
+            if (null != previous) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[j] = leaf;
+            firstKeys[j] = keys[from];
+            from += length;
+        }
+
+        // 逐层构建内部节点
+        while (count > 1) {
+            int parentCount = (count + order - 1) / order;
+            Node[] parents = new Node[parentCount];
+            Object[] parentFirstKeys = new Object[parentCount];
+            for (int j = 0, from = 0; j < parentCount; ++j) {
+                int length = count / parentCount + (j < count % parentCount ? 1 : 0);
+                Inner inner = new Inner(tree.maxKeys);
+                System.arraycopy(level, from, inner.children, 0, length);
+                System.arraycopy(firstKeys, from + 1, inner.keys, 0, length - 1);
+                inner.size = length - 1;
+                parents[j] = inner;
+                parentFirstKeys[j] = firstKeys[from];
+                from += length;
+            }
+            level = parents;
+            firstKeys = parentFirstKeys;
+            count = parentCount;
+        }
+
+        tree.root = level[0];
+        tree.size = n;
+        return tree;
+    }
+
+    /**
+     * 使用默认的阶数，由有序的键值对批量构建 B+ 树
+     * @see #bulkLoad(Comparable[], Object[], int)
+     */
+    public static <K extends Comparable<K>, V> BPlusTree<K, V> bulkLoad(K[] keys, V[] values) {
+        return bulkLoad(keys, values, DEFAULT_ORDER);
+    }
+
+    @Override
+    public boolean contains(K key) {
+        Leaf leaf = findLeaf(key);
+        return search(leaf, key) >= 0;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (insert(root, key, value)) {
+            ++size;
+        }
+
+        // 根节点分裂时，树高加 1
+        if (root.size > maxKeys) {
+            Inner newRoot = new Inner(maxKeys);
+            newRoot.children[0] = root;
+            root = newRoot;
+            splitChild(newRoot, 0);
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        if (0 == size) {
+            throw new IllegalArgumentException("B+ Tree is empty!");
+        }
+
+        Object result = delete(root, key);
+        if (NOT_FOUND == result) {
+            return null;
+        }
+        --size;
+
+        // 根节点只剩一个子节点时，树高减 1
+        if (root instanceof Inner && 0 == root.size) {
+            root = ((Inner) root).children[0];
+        }
+        return value(result);
+    }
+
+    @Override
+    public V get(K key) {
+        Leaf leaf = findLeaf(key);
+        int index = search(leaf, key);
+        return index >= 0 ? value(leaf.values[index]) : null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按键的升序遍历 [from, to) 范围内的所有键值对
+     * @param from     起始键（包含）
+     * @param to       结束键（不包含）
+     * @param consumer 键值对的处理器
+     */
+    public void range(K from, K to, BiConsumer<? super K, ? super V> consumer) {
+        Leaf leaf = findLeaf(from);
+        int index = search(leaf, from);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+
+        // 找到起点后，顺着叶子节点的链表向右遍历
+        while (null != leaf) {
+            for (; index < leaf.size; ++index) {
+                K key = key(leaf.keys[index]);
+                if (key.compareTo(to) >= 0) {
+                    return;
+                }
+                consumer.accept(key, value(leaf.values[index]));
+            }
+            leaf = leaf.next;
+            index = 0;
+        }
+    }
+
+    /**
+     * 从根节点出发，找到 key 所在的叶子节点
+     */
+    private Leaf findLeaf(K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[childIndex(node, key)];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * 在以 node 为根节点的子树中，添加键值对 (key, value)
+     * @return 如果 key 原来不存在，则返回 true；否则，更新其值，并返回 false
+     */
+    private boolean insert(Node node, K key, V value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = search(leaf, key);
+            if (index >= 0) {
+                leaf.values[index] = value;
+                return false;
+            }
+
+            index = -(index + 1);
+            System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.size - index);
+            System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.size - index);
+            leaf.keys[index] = key;
+            leaf.values[index] = value;
+            ++leaf.size;
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, key);
+        boolean added = insert(inner.children[index], key, value);
+        if (inner.children[index].size > maxKeys) {
+            splitChild(inner, index);
+        }
+        return added;
+    }
+
+    /**
+     * 将 parent 的第 index 个子节点（键的个数为 maxKeys + 1）分裂成两个节点
+     */
+    private void splitChild(Inner parent, int index) {
+        Node child = parent.children[index];
+        int mid = child.size / 2;
+        Object separator;
+        Node right;
+
+        if (child instanceof Leaf) {
+            // 叶子节点：右半部分移动到新节点中，新节点的第一个键作为分隔键
+            Leaf leaf = (Leaf) child;
+            Leaf newLeaf = new Leaf(maxKeys);
+            newLeaf.size = leaf.size - mid;
+            System.arraycopy(leaf.keys, mid, newLeaf.keys, 0, newLeaf.size);
+            System.arraycopy(leaf.values, mid, newLeaf.values, 0, newLeaf.size);
+            clear(leaf.keys, mid, leaf.size);
+            clear(leaf.values, mid, leaf.size);
+            leaf.size = mid;
+            newLeaf.next = leaf.next;
+            leaf.next = newLeaf;
+            separator = newLeaf.keys[0];
+            right = newLeaf;
+        } else {
+            // 内部节点：中间的键上移到父节点中，其右边的键及子节点移动到新节点中
+            Inner inner = (Inner) child;
+            Inner newInner = new Inner(maxKeys);
+            newInner.size = inner.size - mid - 1;
+            System.arraycopy(inner.keys, mid + 1, newInner.keys, 0, newInner.size);
+            System.arraycopy(inner.children, mid + 1, newInner.children, 0, newInner.size + 1);
+            separator = inner.keys[mid];
+            clear(inner.keys, mid, inner.size);
+            clear(inner.children, mid + 1, inner.size + 1);
+            inner.size = mid;
+            right = newInner;
+        }
+
+        System.arraycopy(parent.keys, index, parent.keys, index + 1, parent.size - index);
+        System.arraycopy(parent.children, index + 1, parent.children, index + 2, parent.size - index);
+        parent.keys[index] = separator;
+        parent.children[index + 1] = right;
+        ++parent.size;
+    }
+
+    /**
+     * 在以 node 为根节点的子树中，删除键 key
+     * @return 被删除的值。如果 key 不存在，则返回 NOT_FOUND
+     */
+    private Object delete(Node node, K key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = search(leaf, key);
+            if (index < 0) {
+                return NOT_FOUND;
+            }
+
+            Object value = leaf.values[index];
+            System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.size - index - 1);
+            System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.size - index - 1);
+            --leaf.size;
+            leaf.keys[leaf.size] = null;
+            leaf.values[leaf.size] = null;
+            return value;
+        }
+
+        // 内部节点中的分隔键即使已被删除，依然可以正确地划分子树，因此无需更新
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, key);
+        Object result = delete(inner.children[index], key);
+        if (NOT_FOUND != result && inner.children[index].size < minKeys) {
+            rebalance(inner, index);
+        }
+        return result;
+    }
+
+    /**
+     * parent 的第 index 个子节点中的键不足 minKeys 个，向兄弟节点借一个键，或者与兄弟节点合并
+     */
+    private void rebalance(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node left = index > 0 ? parent.children[index - 1] : null;
+        Node right = index < parent.size ? parent.children[index + 1] : null;
+
+        if (null != left && left.size > minKeys) {
+            borrowFromLeft(parent, index, left, child);
+        } else if (null != right && right.size > minKeys) {
+            borrowFromRight(parent, index, child, right);
+        } else if (null != left) {
+            merge(parent, index - 1);
+        } else {
+            merge(parent, index);
+        }
+    }
+
+    private void borrowFromLeft(Inner parent, int index, Node left, Node child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf leftLeaf = (Leaf) left;
+            System.arraycopy(leaf.values, 0, leaf.values, 1, leaf.size);
+            leaf.keys[0] = leftLeaf.keys[leftLeaf.size - 1];
+            leaf.values[0] = leftLeaf.values[leftLeaf.size - 1];
+            leftLeaf.keys[leftLeaf.size - 1] = null;
+            leftLeaf.values[leftLeaf.size - 1] = null;
+            parent.keys[index - 1] = leaf.keys[0];
+        } else {
+            // 父节点中的分隔键下移到 child 中，left 的最后一个键上移到父节点中
+            Inner inner = (Inner) child;
+            Inner leftInner = (Inner) left;
+            System.arraycopy(inner.children, 0, inner.children, 1, inner.size + 1);
+            inner.keys[0] = parent.keys[index - 1];
+            inner.children[0] = leftInner.children[leftInner.size];
+            parent.keys[index - 1] = leftInner.keys[leftInner.size - 1];
+            leftInner.keys[leftInner.size - 1] = null;
+            leftInner.children[leftInner.size] = null;
+        }
+        ++child.size;
+        --left.size;
+    }
+
+    private void borrowFromRight(Inner parent, int index, Node child, Node right) {
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf rightLeaf = (Leaf) right;
+            leaf.keys[leaf.size] = rightLeaf.keys[0];
+            leaf.values[leaf.size] = rightLeaf.values[0];
+            System.arraycopy(rightLeaf.keys, 1, rightLeaf.keys, 0, rightLeaf.size - 1);
+            System.arraycopy(rightLeaf.values, 1, rightLeaf.values, 0, rightLeaf.size - 1);
+            rightLeaf.keys[rightLeaf.size - 1] = null;
+            rightLeaf.values[rightLeaf.size - 1] = null;
+            parent.keys[index] = rightLeaf.keys[0];
+        } else {
+            // 父节点中的分隔键下移到 child 中，right 的第一个键上移到父节点中
+            Inner inner = (Inner) child;
+            Inner rightInner = (Inner) right;
+            inner.keys[inner.size] = parent.keys[index];
+            inner.children[inner.size + 1] = rightInner.children[0];
+            parent.keys[index] = rightInner.keys[0];
+            System.arraycopy(rightInner.keys, 1, rightInner.keys, 0, rightInner.size - 1);
+            System.arraycopy(rightInner.children, 1, rightInner.children, 0, rightInner.size);
+            rightInner.keys[rightInner.size - 1] = null;
+            rightInner.children[rightInner.size] = null;
+        }
+        ++child.size;
+        --right.size;
+    }
+
+    /**
+     * 将 parent 的第 index + 1 个子节点合并到第 index 个子节点中
+     */
+    private void merge(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+
+        if (left instanceof Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            Leaf rightLeaf = (Leaf) right;
+            System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.size, rightLeaf.size);
+            System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.size, rightLeaf.size);
+            leftLeaf.size += rightLeaf.size;
+            leftLeaf.next = rightLeaf.next;
+        } else {
+            // 父节点中的分隔键下移，与两个节点的键合并在一起
+            Inner leftInner = (Inner) left;
+            Inner rightInner = (Inner) right;
+            leftInner.keys[leftInner.size] = parent.keys[index];
+            System.arraycopy(rightInner.keys, 0, leftInner.keys, leftInner.size + 1, rightInner.size);
+            System.arraycopy(rightInner.children, 0, leftInner.children, leftInner.size + 1, rightInner.size + 1);
+            leftInner.size += rightInner.size + 1;
+        }
+
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 1);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - index - 1);
+        --parent.size;
+        parent.keys[parent.size] = null;
+        parent.children[parent.size + 1] = null;
+    }
+
+    /**
+     * 在节点的 keys[0, size) 中二分查找 key
+     * @return key 的索引。如果不存在，则返回 -(插入位置 + 1)
+     */
+    private int search(Node node, K key) {
+        int left = 0;
+        int right = node.size - 1;
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            int cmp = key(node.keys[mid]).compareTo(key);
+            if (cmp < 0) {
+                left = mid + 1;
+            } else if (cmp > 0) {
+                right = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(left + 1);
+    }
+
+    /**
+     * 获取内部节点中 key 所在子树的索引
+     */
+    private int childIndex(Node node, K key) {
+        int index = search(node, key);
+        return index >= 0 ? index + 1 : -(index + 1); // 等于分隔键的键位于右子树中
+    }
+
+    private static void clear(Object[] array, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            array[i] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(Object key) {
+        return (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Object value) {
+        return (V) value;
+    }
+}
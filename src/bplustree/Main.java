@@ -0,0 +1,29 @@
+package bplustree;
+
+public class Main {
+
+    public static void main(String[] args) {
+        BPlusTree<Integer, String> tree = new BPlusTree<Integer, String>(4);
+        for (int i = 0; i < 20; ++i) {
+            tree.put(i, String.valueOf(i));
+        }
+        System.out.println("size: " + tree.size()); // 20
+        System.out.println("get(7): " + tree.get(7)); // 7
+        System.out.println("contains(20): " + tree.contains(20)); // false
+
+        tree.remove(7);
+        System.out.println("after remove(7)");
+        System.out.println("size: " + tree.size()); // 19
+        System.out.println("contains(7): " + tree.contains(7)); // false
+
+        // 范围查询 [5, 10)
+        tree.range(5, 10, (key, value) -> System.out.print(key + " ")); // 5 6 8 9
+        System.out.println();
+
+        Integer[] keys = { 1, 3, 5, 7, 9 };
+        String[] values = { "1", "3", "5", "7", "9" };
+        BPlusTree<Integer, String> loaded = BPlusTree.bulkLoad(keys, values, 4);
+        System.out.println("bulkLoad size: " + loaded.size()); // 5
+        System.out.println("get(5): " + loaded.get(5)); // 5
+    }
+}
@@ -2,6 +2,8 @@ package bst;
 
 import java.util.LinkedList;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * 二分搜索树结构
@@ -11,6 +13,11 @@ import java.util.Stack;
  */
 public class BST<E extends Comparable<E>> {
 
+    /**
+     * 并行批量构建时，元素个数不超过该值的子树直接串行构建
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
     /**
      * 树节点的定义
      */
@@ -37,6 +44,37 @@ public class BST<E extends Comparable<E>> {
         size = 0;
     }
 
+    /**
+     * 由有序的元素批量构建一棵平衡的二分搜索树，时间复杂度为 O(n)
+     * 每次选取中间的元素作为根节点，左右两边的元素分别构建左右子树
+     * 
+     * @param elements  严格递增的元素
+     * @return          构建好的二分搜索树
+     */
+    public static <E extends Comparable<E>> BST<E> bulkLoad(E[] elements) {
+        checkSorted(elements);
+
+        BST<E> bst = new BST<E>();
+        bst.root = bst.build(elements, 0, elements.length);
+        bst.size = elements.length;
+        return bst;
+    }
+
+    /**
+     * 与 bulkLoad 相同，但使用 fork-join 并行地构建左右子树
+     * 
+     * @param elements  严格递增的元素
+     * @return          构建好的二分搜索树
+     */
+    public static <E extends Comparable<E>> BST<E> parallelBulkLoad(E[] elements) {
+        checkSorted(elements);
+
+        BST<E> bst = new BST<E>();
+        bst.root = ForkJoinPool.commonPool().invoke(bst.new BuildTask(elements, 0, elements.length));
+        bst.size = elements.length;
+        return bst;
+    }
+
     /**
      * 获取二分搜索树的大小
      */
@@ -465,4 +503,66 @@ public class BST<E extends Comparable<E>> {
         postOrder(root.right);
         System.out.println(root.e);
     }
+
+    /**
+     * 将 [lo, hi) 中的元素构建成平衡的二分搜索树
+     * 
+     * @return 二分搜索树的根节点
+     */
+    private Node build(E[] elements, int lo, int hi) {
+        if (lo == hi) {
+            return null;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+        Node node = new Node(elements[mid]);
+        node.left = build(elements, lo, mid);
+        node.right = build(elements, mid + 1, hi);
+        return node;
+    }
+
+    /**
+     * 并行构建的子任务，负责将 [lo, hi) 中的元素构建成平衡的二分搜索树
+     */
+    private class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private E[] elements;
+        private int lo;
+        private int hi;
+
+        public BuildTask(E[] elements, int lo, int hi) {
+            this.elements = elements;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Node compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                return build(elements, lo, hi);
+            }
+
+            int mid = lo + (hi - lo) / 2;
+            BuildTask left = new BuildTask(elements, lo, mid);
+            BuildTask right = new BuildTask(elements, mid + 1, hi);
+            invokeAll(left, right);
+
+            Node node = new Node(elements[mid]);
+            node.left = left.join();
+            node.right = right.join();
+            return node;
+        }
+    }
+
+    /**
+     * 检查批量构建的元素是否严格递增
+     */
+    private static <E extends Comparable<E>> void checkSorted(E[] elements) {
+        for (int i = 1; i < elements.length; ++i) {
+            if (elements[i - 1].compareTo(elements[i]) >= 0) {
+                throw new IllegalArgumentException("Elements must be strictly increasing!");
+            }
+        }
+    }
 }
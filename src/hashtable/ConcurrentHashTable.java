@@ -0,0 +1,227 @@
+package hashtable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 线程安全的哈希表，链地址法解决哈希冲突，使用分段锁（Lock Striping）实现并发控制，对 key 无特殊要求（key 不能为 null）。
+ *
+ * 整个哈希表被分成 SEGMENT_COUNT 个段（Segment），每个段是一个独立的小哈希表，拥有自己的锁、哈希桶数组和元素个数。
+ *  （1）写操作（put、remove）：只锁住 key 所在的段，不同段上的写操作可以并行执行
+ *  （2）读操作（get、contains）：不加锁。链表节点的 key、next 不可变，val 为 volatile，哈希桶数组使用 AtomicReferenceArray，
+ *      因此读线程总能看到一个完整的链表（要么是修改前的，要么是修改后的）
+ *  （3）扩容：每个段独立扩容，只会阻塞同一个段上的写操作。扩容时创建新的哈希桶数组，旧数组保持不变，正在读旧数组的线程不受影响。
+ *      由于各个段的扩容互不影响，多个写线程可以同时对不同的段进行扩容
+ */
+public class ConcurrentHashTable<K, V> implements HashTable<K, V> {
+
+    /**
+     * 段的个数（必须是 2 的幂）
+     */
+    private static final int SEGMENT_COUNT = 32;
+
+    /**
+     * 每个段的初始容量（必须是 2 的幂）
+     */
+    private static final int SEGMENT_INITIAL_CAPACITY = 16;
+
+    /**
+     * 负载因子，段中元素个数超过 capacity * LOAD_FACTOR 时扩容
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * 链表节点。key、next 不可变，因此读线程无需加锁即可安全遍历链表。
+     */
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V val;
+        final Node<K, V> next;
+
+        public Node(int hash, K key, V val, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.val = val;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 段，一个独立加锁的小哈希表
+     */
+    private static class Segment<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 哈希桶数组，扩容时整体替换
+         */
+        volatile AtomicReferenceArray<Node<K, V>> table;
+
+        /**
+         * 段中的元素个数
+         */
+        volatile int count;
+
+        public Segment() {
+            table = new AtomicReferenceArray<Node<K, V>>(SEGMENT_INITIAL_CAPACITY);
+            count = 0;
+        }
+
+        Node<K, V> getNode(int hash, Object key) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (Node<K, V> e = tab.get(hash & (tab.length() - 1)); null != e; e = e.next) {
+                if (e.hash == hash && e.key.equals(key)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        void put(int hash, K key, V val) {
+            lock();
+            try {
+                Node<K, V> node = getNode(hash, key);
+                if (null != node) { // 已经存在 key，则直接更新该值即可
+                    node.val = val;
+                    return;
+                }
+
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                tab.set(index, new Node<K, V>(hash, key, val, tab.get(index))); // 头插法，新节点对读线程立即可见
+                ++count;
+
+                if (count > tab.length() * LOAD_FACTOR) {
+                    resize();
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(int hash, Object key) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Node<K, V> first = tab.get(index);
+
+                Node<K, V> target = first;
+                while (null != target && !(target.hash == hash && target.key.equals(key))) {
+                    target = target.next;
+                }
+                if (null == target) { // 不包含 key 对应的元素，无需删除
+                    return null;
+                }
+
+                // 由于 next 不可变，需要复制 target 之前的节点，构造一个不含 target 的新链表，再整体替换
+                Node<K, V> newFirst = target.next;
+                for (Node<K, V> p = first; p != target; p = p.next) {
+                    newFirst = new Node<K, V>(p.hash, p.key, p.val, newFirst);
+                }
+                tab.set(index, newFirst);
+                --count;
+
+                return target.val;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * 将段的容量扩大为原来的两倍（调用时必须持有锁）
+         */
+        private void resize() {
+            AtomicReferenceArray<Node<K, V>> oldTable = table;
+            int newCapacity = oldTable.length() << 1;
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<Node<K, V>>(newCapacity);
+
+            // 复制节点到新数组中，旧数组中的链表保持不变，正在读旧数组的线程不受影响
+            for (int i = 0; i < oldTable.length(); ++i) {
+                for (Node<K, V> e = oldTable.get(i); null != e; e = e.next) {
+                    int index = e.hash & (newCapacity - 1);
+                    newTable.set(index, new Node<K, V>(e.hash, e.key, e.val, newTable.get(index)));
+                }
+            }
+
+            table = newTable;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentHashTable() {
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; ++i) {
+            segments[i] = new Segment<K, V>();
+        }
+    }
+
+    @Override
+    public void put(K key, V val) {
+        int hash = hash(key);
+        segmentFor(hash).put(hash, key, val);
+    }
+
+    @Override
+    public V get(K key) {
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).getNode(hash, key);
+        return null == node ? null : node.val;
+    }
+
+    @Override
+    public V remove(K key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(hash, key);
+    }
+
+    /**
+     * 返回各个段元素个数之和。并发修改时，结果只是一个近似值。
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        int hash = hash(key);
+        return null != segmentFor(hash).getNode(hash, key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (0 != segment.count) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 对 key 的 hashCode 进行扰动，使得高位、低位都能分布均匀（高位用于选择段，低位用于选择哈希桶）
+     */
+    private int hash(K key) {
+        if (null == key) {
+            throw new IllegalArgumentException("Key can't be null!");
+        }
+
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 使用哈希值的高位选择段，避免与段内选择哈希桶所用的低位相关
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> 27) & (SEGMENT_COUNT - 1)];
+    }
+}
@@ -0,0 +1,248 @@
+package hashtable;
+
+/**
+ * 键、值均为 int 的哈希表，使用开放地址法（线性探测）解决哈希冲突。
+ *
+ * 键、值直接存放在 int 数组中，不需要装箱，也不需要为每个元素创建节点，因此 put 时不会产生额外的对象。
+ * 由于数组中用 0 表示空位置，所以键 0 不放在数组中，而是单独使用 hasZeroKey、zeroVal 进行存储。
+ *
+ * 注意：int 类型的值无法用 null 表示"不存在"，所以与 HashTable.get 在 key 不存在时返回 null 不同，
+ * 本类的 get 在 key 不存在时会抛出 IllegalArgumentException。不确定 key 是否存在时，应使用 getOrDefault 或先调用 contains。
+ */
+public class IntIntHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private static final double MIN_LOAD_FACTOR = 0.125;
+
+    /**
+     * 存储键，0 表示该位置为空
+     */
+    private int[] keys;
+
+    /**
+     * 存储值，与 keys 中的键一一对应
+     */
+    private int[] vals;
+
+    /**
+     * 哈希表中是否含有键 0
+     */
+    private boolean hasZeroKey;
+
+    /**
+     * 键 0 对应的值
+     */
+    private int zeroVal;
+
+    /**
+     * 哈希表大小（包含键 0）
+     */
+    private int size;
+
+    /**
+     * capacity - 1，用于计算哈希桶索引
+     */
+    private int mask;
+
+    public IntIntHashTable() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预期存放的元素个数，用于确定初始容量，避免频繁扩容
+     */
+    public IntIntHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal size!");
+        }
+
+        int capacity = OpenHashTable.tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR));
+        keys = new int[capacity];
+        vals = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * 在哈希表中，存放 (key, val) 二元组。如果哈希表中存在 key 对应的元素，则用 val 更新其值；否则，直接放入即可。
+     *
+     * @param key 键
+     * @param val 值
+     */
+    public void put(int key, int val) {
+        if (0 == key) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++size;
+            }
+            zeroVal = val;
+            return;
+        }
+
+        int index = hash(key);
+        while (0 != keys[index]) {
+            if (keys[index] == key) {
+                vals[index] = val;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // 至少保留一个空位，否则探测无法终止（键 0 不占用数组位置）
+        if (size - (hasZeroKey ? 1 : 0) == mask) {
+            throw new IllegalStateException("Hash table is full!");
+        }
+        keys[index] = key;
+        vals[index] = val;
+        ++size;
+
+        if (size > keys.length * MAX_LOAD_FACTOR && keys.length < OpenHashTable.MAXIMUM_CAPACITY) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * 获取哈希表中 key 对应的元素值
+     *
+     * @param key 键
+     * @return key 对应的元素值
+     * @throws IllegalArgumentException 哈希表中不存在 key
+     */
+    public int get(int key) {
+        if (0 == key) {
+            if (!hasZeroKey) {
+                throw new IllegalArgumentException("Key doesn't exist!");
+            }
+            return zeroVal;
+        }
+
+        int index = indexOf(key);
+        if (-1 == index) {
+            throw new IllegalArgumentException("Key doesn't exist!");
+        }
+        return vals[index];
+    }
+
+    /**
+     * 获取哈希表中 key 对应的元素值，如果不存在 key，则返回 defaultVal
+     *
+     * @param key        键
+     * @param defaultVal 不存在 key 时的默认值
+     * @return key 对应的元素值
+     */
+    public int getOrDefault(int key, int defaultVal) {
+        if (0 == key) {
+            return hasZeroKey ? zeroVal : defaultVal;
+        }
+
+        int index = indexOf(key);
+        return -1 == index ? defaultVal : vals[index];
+    }
+
+    /**
+     * 删除哈希表中 key 对应的元素
+     *
+     * @param key 键
+     * @return 如果哈希表中存在 key 并将其删除，则返回 true；否则，返回 false。
+     */
+    public boolean remove(int key) {
+        if (0 == key) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroVal = 0;
+            --size;
+            return true;
+        }
+
+        int index = indexOf(key);
+        if (-1 == index) {
+            return false;
+        }
+
+        shiftBack(index);
+        --size;
+
+        if (keys.length > OpenHashTable.INITIAL_CAPACITY && size < keys.length * MIN_LOAD_FACTOR) {
+            resize(keys.length >> 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        return 0 == key ? hasZeroKey : -1 != indexOf(key);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    private int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int indexOf(int key) {
+        int index = hash(key);
+        while (0 != keys[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * 删除 index 处的元素，并将同一探测序列上后续的元素向前移动，填补空出的位置
+     */
+    private void shiftBack(int index) {
+        int hole = index;
+        int cur = index;
+        while (true) {
+            cur = (cur + 1) & mask;
+            if (0 == keys[cur]) {
+                break;
+            }
+
+            int home = hash(keys[cur]);
+            if (((cur - home) & mask) >= ((cur - hole) & mask)) {
+                keys[hole] = keys[cur];
+                vals[hole] = vals[cur];
+                hole = cur;
+            }
+        }
+
+        keys[hole] = 0;
+        vals[hole] = 0;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldVals = vals;
+
+        keys = new int[newCapacity];
+        vals = new int[newCapacity];
+        mask = newCapacity - 1;
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (0 == oldKeys[i]) {
+                continue;
+            }
+
+            int index = hash(oldKeys[i]);
+            while (0 != keys[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            vals[index] = oldVals[i];
+        }
+    }
+}
@@ -5,6 +5,11 @@ import java.util.TreeMap;
 
 /**
  * 链地址法解决哈希冲突，底层使用 LinkedList ，对 key 无特殊要求。
+ * 
+ * 支持两种扩容方式：
+ *  （1）一次性扩容（默认）：在 resize 时，一次性将旧哈希表中的所有元素迁移到新哈希表中。元素较多时，触发扩容的那次 put/remove 会非常耗时。
+ *  （2）渐进式扩容：在 resize 时，只创建新哈希表，旧哈希表依然保留，之后每次 put/get/remove 时迁移 MIGRATE_STEP 个哈希桶，
+ *      直到所有哈希桶迁移完成。迁移期间，新元素只放进新哈希表中，查找时需要同时查找新、旧两个哈希表。
  */
 public class LinkedHashTable<K, V> implements HashTable<K, V> {
 
@@ -31,10 +36,22 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
     private static final int UPPER = 2; // 10;
 
     /**
-     * 平均每个哈希桶含有的元素个数下限
+     * 平均每个哈希桶含有的元素个数下限。为了避免在阈值附近交替 put/remove 时反复扩容、缩容，缩容时以更小一级的容量计算下限：
+     * 元素个数不超过 LOWER * CAPACITY_ARR[capacityIndex - 1] 时才缩容。扩容、缩容之后，负载都约为 LOWER，
+     * 距离下一次扩容、缩容都需要增加、删除大约一半的元素
      */
     private static final int LOWER = 1; // 2;
 
+    /**
+     * 渐进式扩容时，每次操作迁移的哈希桶个数
+     */
+    private static final int MIGRATE_STEP = 4;
+
+    /**
+     * 是否打印扩容日志，默认关闭，避免控制台输出影响性能测试结果。可以通过 -Dhashtable.logResize=true 打开
+     */
+    private static final boolean LOG_RESIZE = Boolean.getBoolean("hashtable.logResize");
+
     /**
      * 存储数据
      */
@@ -55,7 +72,35 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
      */
     private int capacityIndex;
 
+    /**
+     * 是否使用渐进式扩容
+     */
+    private boolean incremental;
+
+    /**
+     * 渐进式扩容时，尚未迁移完成的旧哈希表。不处于扩容过程中时，为 null。
+     */
+    private LinkedList<Node>[] oldHashtable;
+
+    /**
+     * 旧哈希表的容量
+     */
+    private int oldCapacity;
+
+    /**
+     * 旧哈希表中下一个待迁移的哈希桶索引，[0, migrateIndex) 中的哈希桶均已迁移到新哈希表中
+     */
+    private int migrateIndex;
+
     public LinkedHashTable() {
+        this(false);
+    }
+
+    /**
+     * @param incremental 是否使用渐进式扩容。如果为 true，则扩容时分多次迁移元素，避免单次操作耗时过长
+     */
+    public LinkedHashTable(boolean incremental) {
+        this.incremental = incremental;
         size = 0;
         capacityIndex = 0;
         capacity = CAPACITY_ARR[capacityIndex];
@@ -68,25 +113,34 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
 
     @Override
     public void put(K key, V val) {
+        migrate();
+
         Node node = getNode(key);
         if (null != node) { // 已经存在 key，则直接更新该值即可
             node.val = val;
             return;
         }
 
-        // 不存在 key，则添加新值
-        hashtable[hash(key)].add(new Node(key, val));
+        // 不存在 key，则添加新值（扩容过程中，新值只放进新哈希表中）
+        getBucket(hashtable, hash(key)).add(new Node(key, val));
         ++size;
 
-        if (size >= UPPER * capacity && capacityIndex + 1 < CAPACITY_ARR.length) {
-            System.out.println("before resize(put), capacity is: " + capacity + ", size: " + size);
+        if (size >= UPPER * capacity && capacityIndex + 1 < CAPACITY_ARR.length
+                && canResize(CAPACITY_ARR[capacityIndex + 1])) {
+            if (LOG_RESIZE) {
+                System.out.println("before resize(put), capacity is: " + capacity + ", size: " + size);
+            }
             resize(CAPACITY_ARR[++capacityIndex]);
-            System.out.println("after resize(put), capacity is: " + capacity);
+            if (LOG_RESIZE) {
+                System.out.println("after resize(put), capacity is: " + capacity);
+            }
         }
     }
 
     @Override
     public V get(K key) {
+        migrate();
+
         Node node = getNode(key);
         if (null == node) {
             return null;
@@ -97,19 +151,27 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
 
     @Override
     public V remove(K key) {
-        Node node = getNode(key);
+        migrate();
+
+        LinkedList<Node> list = getListOf(key);
+        Node node = getNode(list, key);
         if (null == node) { // 不包含 key 对应的元素，无需删除
             return null;
         }
 
         // 删除 key 对应的元素
-        hashtable[hash(key)].remove(node);
+        list.remove(node);
         --size;
 
-        if (size <= LOWER * capacity && capacityIndex - 1 >= 0) {
-            System.out.println("before resize(remove), capacity is: " + capacity + ", size: " + size);
+        if (capacityIndex - 1 >= 0 && size <= LOWER * CAPACITY_ARR[capacityIndex - 1]
+                && canResize(CAPACITY_ARR[capacityIndex - 1])) {
+            if (LOG_RESIZE) {
+                System.out.println("before resize(remove), capacity is: " + capacity + ", size: " + size);
+            }
             resize(CAPACITY_ARR[--capacityIndex]);
-            System.out.println("after resize(remove), capacity is: " + capacity);
+            if (LOG_RESIZE) {
+                System.out.println("after resize(remove), capacity is: " + capacity);
+            }
         }
 
         return node.val;
@@ -131,6 +193,10 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
     }
 
     private int hash(K key) {
+        return hash(key, capacity);
+    }
+
+    private int hash(K key, int capacity) {
         return (key.hashCode() & 0x7fffffff) % capacity;
     }
 
@@ -141,7 +207,16 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
      * @return key 对应的节点。如果能获取到，则返回该节点；否则，返回 null。
      */
     private Node getNode(K key) {
-        LinkedList<Node> list = hashtable[hash(key)];
+        return getNode(getListOf(key), key);
+    }
+
+    /**
+     * 在链表 list 中获取 key 对应的节点。如果能获取到，则返回该节点；否则，返回 null。
+     */
+    private Node getNode(LinkedList<Node> list, K key) {
+        if (null == list) {
+            return null;
+        }
 
         for (Node e : list) {
             if (e.key.equals(key)) {
@@ -152,7 +227,39 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
         return null;
     }
 
+    /**
+     * 获取 key 所在的链表。扩容过程中，如果 key 所在的旧哈希桶尚未迁移，且 key 在旧哈希桶中，则返回旧哈希桶；否则，返回新哈希表中的哈希桶。
+     * 
+     * @param key
+     * @return key 所在的链表（可能为 null，表示该哈希桶还未创建）
+     */
+    private LinkedList<Node> getListOf(K key) {
+        if (null != oldHashtable) {
+            int oldIndex = hash(key, oldCapacity);
+            if (oldIndex >= migrateIndex && null != getNode(oldHashtable[oldIndex], key)) {
+                return oldHashtable[oldIndex];
+            }
+        }
+
+        return hashtable[hash(key)];
+    }
+
+    /**
+     * 获取 table 中 index 处的哈希桶，如果该哈希桶还未创建，则先创建。（渐进式扩容时，新哈希表中的哈希桶是按需创建的）
+     */
+    private LinkedList<Node> getBucket(LinkedList<Node>[] table, int index) {
+        if (null == table[index]) {
+            table[index] = new LinkedList<Node>();
+        }
+        return table[index];
+    }
+
     private void resize(int newCapacity) {
+        if (incremental) {
+            startResize(newCapacity);
+            return;
+        }
+
         int oldCapacity = capacity;
         capacity = newCapacity;
 
@@ -172,4 +279,67 @@ public class LinkedHashTable<K, V> implements HashTable<K, V> {
 
         hashtable = newHashtable;
     }
+
+    /**
+     * 开始渐进式扩容：只创建新哈希表（哈希桶按需创建），旧哈希表中的元素在之后的操作中逐步迁移
+     * 
+     * @param newCapacity 新容量
+     */
+    private void startResize(int newCapacity) {
+        if (null != oldHashtable) {
+            // 上一次扩容还未迁移完成，且新容量等于旧哈希表的容量：无需一次性迁移剩余的元素，交换新、旧哈希表的角色，
+            // 反向迁移即可。尚未迁移的元素留在原来的哈希桶中，已迁移到新哈希表中的元素（以及之后添加的元素）再逐步迁移回去
+            LinkedList<Node>[] target = oldHashtable;
+            oldHashtable = hashtable;
+            oldCapacity = capacity;
+            migrateIndex = 0;
+
+            capacity = newCapacity;
+            hashtable = target;
+            return;
+        }
+
+        oldHashtable = hashtable;
+        oldCapacity = capacity;
+        migrateIndex = 0;
+
+        capacity = newCapacity;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        LinkedList<Node>[] newHashtable = new LinkedList[newCapacity];
+        hashtable = newHashtable;
+    }
+
+    /**
+     * 判断是否可以立即扩容到 newCapacity。渐进式扩容时，如果上一次扩容还未迁移完成，则只能反向扩容（见 startResize）；
+     * 其他情况推迟到迁移完成之后，由之后的 put/remove 重新判断。迁移最多再需要 oldCapacity / MIGRATE_STEP 次操作，
+     * 这期间负载最多偏离阈值 oldCapacity / MIGRATE_STEP 个元素
+     */
+    private boolean canResize(int newCapacity) {
+        return null == oldHashtable || newCapacity == oldCapacity;
+    }
+
+    /**
+     * 渐进式扩容时，将旧哈希表中的 MIGRATE_STEP 个哈希桶迁移到新哈希表中。迁移完成后，释放旧哈希表。
+     */
+    private void migrate() {
+        if (null == oldHashtable) {
+            return;
+        }
+
+        for (int step = 0; step < MIGRATE_STEP && migrateIndex < oldCapacity; ++step, ++migrateIndex) {
+            LinkedList<Node> list = oldHashtable[migrateIndex];
+            if (null == list) {
+                continue;
+            }
+
+            for (Node e : list) {
+                getBucket(hashtable, hash(e.key)).add(e);
+            }
+            oldHashtable[migrateIndex] = null;
+        }
+
+        if (migrateIndex == oldCapacity) {
+            oldHashtable = null;
+        }
+    }
 }
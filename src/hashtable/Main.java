@@ -6,6 +6,7 @@ public class Main {
 
         HashTable<Integer, Integer> hashTable = new TreeHashTable<Integer, Integer>();
         //        HashTable<Integer, Integer> hashTable = new LinkedHashTable<Integer, Integer>();
+        //        HashTable<Integer, Integer> hashTable = new OpenHashTable<Integer, Integer>();
 
         // test isEmpty、put、remove、contains、get、size
         System.out.println("isEmpty: " + hashTable.isEmpty()); // true
@@ -0,0 +1,229 @@
+package hashtable;
+
+/**
+ * 开放地址法解决哈希冲突，使用线性探测，对 key 无特殊要求（key 不能为 null）。
+ *
+ * 与 LinkedHashTable 相比：
+ *  （1）键、值直接存放在两个连续的数组中，不需要为每个元素创建 LinkedList、Node，put 时不会产生额外的对象
+ *  （2）哈希表容量始终为 2 的幂，因此可以用 & 运算代替取模运算来计算哈希桶索引
+ *  （3）删除元素时，不使用“墓碑”标记，而是将后面同一探测序列上的元素向前移动（backward-shift），从而保证探测序列始终连续
+ */
+public class OpenHashTable<K, V> implements HashTable<K, V> {
+
+    /**
+     * 哈希表的初始容量（必须是 2 的幂）
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 哈希表的最大容量，达到后不再扩容
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * 负载因子上限，元素个数超过 capacity * MAX_LOAD_FACTOR 时扩容
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * 负载因子下限，元素个数低于 capacity * MIN_LOAD_FACTOR 时缩容
+     */
+    private static final double MIN_LOAD_FACTOR = 0.125;
+
+    /**
+     * 存储键，null 表示该位置为空
+     */
+    private Object[] keys;
+
+    /**
+     * 存储值，与 keys 中的键一一对应
+     */
+    private Object[] vals;
+
+    /**
+     * 哈希表大小
+     */
+    private int size;
+
+    /**
+     * capacity - 1，用于计算哈希桶索引
+     */
+    private int mask;
+
+    public OpenHashTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预期存放的元素个数，用于确定初始容量，避免频繁扩容
+     */
+    public OpenHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal size!");
+        }
+
+        int capacity = tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR));
+        keys = new Object[capacity];
+        vals = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    @Override
+    public void put(K key, V val) {
+        int index = hash(key);
+        while (null != keys[index]) {
+            if (keys[index].equals(key)) { // 已经存在 key，则直接更新该值即可
+                vals[index] = val;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // 不存在 key，则放在探测到的第一个空位上。至少保留一个空位，否则探测无法终止
+        if (size == mask) {
+            throw new IllegalStateException("Hash table is full!");
+        }
+        keys[index] = key;
+        vals[index] = val;
+        ++size;
+
+        if (size > keys.length * MAX_LOAD_FACTOR && keys.length < MAXIMUM_CAPACITY) {
+            resize(keys.length << 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(K key) {
+        int index = indexOf(key);
+        return -1 == index ? null : (V) vals[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(K key) {
+        int index = indexOf(key);
+        if (-1 == index) { // 不包含 key 对应的元素，无需删除
+            return null;
+        }
+
+        V val = (V) vals[index];
+        shiftBack(index);
+        --size;
+
+        if (keys.length > INITIAL_CAPACITY && size < keys.length * MIN_LOAD_FACTOR) {
+            resize(keys.length >> 1);
+        }
+
+        return val;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return -1 != indexOf(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * 获取 key 的哈希桶索引。先对 hashCode 进行扰动，使得高位也参与运算，然后再与 mask 进行 & 运算
+     *
+     * @param key
+     * @return key 的哈希桶索引
+     */
+    private int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * 获取 key 在 keys 数组中的位置
+     *
+     * @param key
+     * @return key 所在的位置。如果哈希表中不存在 key，则返回 -1
+     */
+    private int indexOf(Object key) {
+        int index = hash(key);
+        while (null != keys[index]) {
+            if (keys[index].equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * 删除 index 处的元素，并将同一探测序列上后续的元素向前移动，填补空出的位置
+     *
+     * @param index 待删除元素的位置
+     */
+    private void shiftBack(int index) {
+        int hole = index; // 当前空出的位置
+        int cur = index;
+        while (true) {
+            cur = (cur + 1) & mask;
+            if (null == keys[cur]) {
+                break; // 探测序列结束
+            }
+
+            // cur 处元素的理想位置为 home，只有当 hole 位于 [home, cur) 这一段（环形）探测路径上时，才能将其移到 hole 处
+            int home = hash(keys[cur]);
+            if (((cur - home) & mask) >= ((cur - hole) & mask)) {
+                keys[hole] = keys[cur];
+                vals[hole] = vals[cur];
+                hole = cur;
+            }
+        }
+
+        keys[hole] = null;
+        vals[hole] = null;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldVals = vals;
+
+        keys = new Object[newCapacity];
+        vals = new Object[newCapacity];
+        mask = newCapacity - 1; // hash() 方法需要使用新容量计算索引，因此在此处需要更新 mask
+
+        // 将旧数组中的元素逐个放进新数组中
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (null == oldKeys[i]) {
+                continue;
+            }
+
+            int index = hash(oldKeys[i]);
+            while (null != keys[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            vals[index] = oldVals[i];
+        }
+    }
+
+    /**
+     * 返回不小于 n 的最小的 2 的幂（至少为 INITIAL_CAPACITY，至多为 MAXIMUM_CAPACITY）
+     */
+    static int tableSizeFor(int n) {
+        if (n >= MAXIMUM_CAPACITY) { // 继续左移会溢出为 0，导致死循环
+            return MAXIMUM_CAPACITY;
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
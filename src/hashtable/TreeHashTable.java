@@ -6,6 +6,9 @@ import java.util.TreeMap;
 
 /**
  * 链地址法解决哈希冲突，底层使用 TreeMap ，要求 key 必须是可比的。
+ * 
+ * 与 LinkedHashTable 一样，支持一次性扩容（默认）和渐进式扩容两种方式。
+ * 渐进式扩容时，旧哈希表依然保留，之后每次 put/get/remove 时迁移 MIGRATE_STEP 个哈希桶，直到所有哈希桶迁移完成。
  */
 public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V> {
     /**
@@ -21,10 +24,22 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
     private static final int UPPER = 2; // 10;
 
     /**
-     * 平均每个哈希桶含有的元素个数下限
+     * 平均每个哈希桶含有的元素个数下限。为了避免在阈值附近交替 put/remove 时反复扩容、缩容，缩容时以更小一级的容量计算下限：
+     * 元素个数不超过 LOWER * CAPACITY_ARR[capacityIndex - 1] 时才缩容。扩容、缩容之后，负载都约为 LOWER，
+     * 距离下一次扩容、缩容都需要增加、删除大约一半的元素
      */
     private static final int LOWER = 1; // 2;
 
+    /**
+     * 渐进式扩容时，每次操作迁移的哈希桶个数
+     */
+    private static final int MIGRATE_STEP = 4;
+
+    /**
+     * 是否打印扩容日志，默认关闭，避免控制台输出影响性能测试结果。可以通过 -Dhashtable.logResize=true 打开
+     */
+    private static final boolean LOG_RESIZE = Boolean.getBoolean("hashtable.logResize");
+
     /**
      * 存储数据
      */
@@ -45,7 +60,35 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
      */
     private int capacityIndex;
 
+    /**
+     * 是否使用渐进式扩容
+     */
+    private boolean incremental;
+
+    /**
+     * 渐进式扩容时，尚未迁移完成的旧哈希表。不处于扩容过程中时，为 null。
+     */
+    private TreeMap<K, V>[] oldHashtable;
+
+    /**
+     * 旧哈希表的容量
+     */
+    private int oldCapacity;
+
+    /**
+     * 旧哈希表中下一个待迁移的哈希桶索引，[0, migrateIndex) 中的哈希桶均已迁移到新哈希表中
+     */
+    private int migrateIndex;
+
     public TreeHashTable() {
+        this(false);
+    }
+
+    /**
+     * @param incremental 是否使用渐进式扩容。如果为 true，则扩容时分多次迁移元素，避免单次操作耗时过长
+     */
+    public TreeHashTable(boolean incremental) {
+        this.incremental = incremental;
         size = 0;
         capacityIndex = 0;
         capacity = CAPACITY_ARR[capacityIndex];
@@ -58,41 +101,59 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
 
     @Override
     public void put(K key, V val) {
-        if (contains(key)) {
-            hashtable[hash(key)].put(key, val);
+        migrate();
+
+        TreeMap<K, V> map = getMapOf(key);
+        if (null != map && map.containsKey(key)) {
+            map.put(key, val);
             return; // 只是更新值，则 size 不发生变化
         }
         
-        hashtable[hash(key)].put(key, val); // 添加新值
+        getBucket(hashtable, hash(key)).put(key, val); // 添加新值（扩容过程中，新值只放进新哈希表中）
         ++size;
 
         // 判断当前元素是否过多，若过多，则进行 resize 扩容
-        if (size >= UPPER * capacity && capacityIndex + 1 < CAPACITY_ARR.length) {
-            System.out.println("before resize(put), capacity is: " + capacity + ", size: " + size);
+        if (size >= UPPER * capacity && capacityIndex + 1 < CAPACITY_ARR.length
+                && canResize(CAPACITY_ARR[capacityIndex + 1])) {
+            if (LOG_RESIZE) {
+                System.out.println("before resize(put), capacity is: " + capacity + ", size: " + size);
+            }
             resize(CAPACITY_ARR[++capacityIndex]);
-            System.out.println("after resize(put), capacity is: " + capacity);
+            if (LOG_RESIZE) {
+                System.out.println("after resize(put), capacity is: " + capacity);
+            }
         }
     }
 
     @Override
     public V get(K key) {
-        return hashtable[hash(key)].get(key);
+        migrate();
+
+        TreeMap<K, V> map = getMapOf(key);
+        return null == map ? null : map.get(key);
     }
 
     @Override
     public V remove(K key) {
-        TreeMap<K, V> map = hashtable[hash(key)];
-        if (!map.containsKey(key)) {
+        migrate();
+
+        TreeMap<K, V> map = getMapOf(key);
+        if (null == map || !map.containsKey(key)) {
             return null;
         }
         
         V val = map.remove(key);
         --size;
         
-        if (size <= LOWER * capacity && capacityIndex - 1 >= 0) {
-            System.out.println("before resize(remove), capacity is: " + capacity + ", size: " + size);
+        if (capacityIndex - 1 >= 0 && size <= LOWER * CAPACITY_ARR[capacityIndex - 1]
+                && canResize(CAPACITY_ARR[capacityIndex - 1])) {
+            if (LOG_RESIZE) {
+                System.out.println("before resize(remove), capacity is: " + capacity + ", size: " + size);
+            }
             resize(CAPACITY_ARR[--capacityIndex]);
-            System.out.println("after resize(remove), capacity is: " + capacity);
+            if (LOG_RESIZE) {
+                System.out.println("after resize(remove), capacity is: " + capacity);
+            }
         }
         
         return val;
@@ -105,7 +166,8 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
 
     @Override
     public boolean contains(K key) {
-        return hashtable[hash(key)].containsKey(key);
+        TreeMap<K, V> map = getMapOf(key);
+        return null != map && map.containsKey(key);
     }
     
     @Override
@@ -120,10 +182,46 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
      * @return
      */
     private int hash(K key) {
+        return hash(key, capacity);
+    }
+
+    private int hash(K key, int capacity) {
         return (key.hashCode() & 0x7fffffff) % capacity; // key.hashCode 与 0x7fffffff 进行 & 操作，相当于是把 key.hashCode 的最高位变为 0 ，从而强制将其转换成正数（相当于取绝对值）
     }
 
+    /**
+     * 获取 key 所在的 TreeMap。扩容过程中，如果 key 所在的旧哈希桶尚未迁移，且 key 在旧哈希桶中，则返回旧哈希桶；否则，返回新哈希表中的哈希桶。
+     * 
+     * @param key
+     * @return key 所在的 TreeMap（可能为 null，表示该哈希桶还未创建）
+     */
+    private TreeMap<K, V> getMapOf(K key) {
+        if (null != oldHashtable) {
+            int oldIndex = hash(key, oldCapacity);
+            if (oldIndex >= migrateIndex && null != oldHashtable[oldIndex] && oldHashtable[oldIndex].containsKey(key)) {
+                return oldHashtable[oldIndex];
+            }
+        }
+
+        return hashtable[hash(key)];
+    }
+
+    /**
+     * 获取 table 中 index 处的哈希桶，如果该哈希桶还未创建，则先创建。（渐进式扩容时，新哈希表中的哈希桶是按需创建的）
+     */
+    private TreeMap<K, V> getBucket(TreeMap<K, V>[] table, int index) {
+        if (null == table[index]) {
+            table[index] = new TreeMap<K, V>();
+        }
+        return table[index];
+    }
+
     private void resize(int newCapacity) {
+        if (incremental) {
+            startResize(newCapacity);
+            return;
+        }
+
         int oldCapacity = capacity;
         capacity = newCapacity; // hash() 方法中需要对新容量进行取模，因此在此处需要更新 capacity
 
@@ -144,4 +242,67 @@ public class TreeHashTable<K extends Comparable<K>, V> implements HashTable<K, V
 
         hashtable = newHashtable;
     }
+
+    /**
+     * 开始渐进式扩容：只创建新哈希表（哈希桶按需创建），旧哈希表中的元素在之后的操作中逐步迁移
+     * 
+     * @param newCapacity 新容量
+     */
+    private void startResize(int newCapacity) {
+        if (null != oldHashtable) {
+            // 上一次扩容还未迁移完成，且新容量等于旧哈希表的容量：无需一次性迁移剩余的元素，交换新、旧哈希表的角色，
+            // 反向迁移即可。尚未迁移的元素留在原来的哈希桶中，已迁移到新哈希表中的元素（以及之后添加的元素）再逐步迁移回去
+            TreeMap<K, V>[] target = oldHashtable;
+            oldHashtable = hashtable;
+            oldCapacity = capacity;
+            migrateIndex = 0;
+
+            capacity = newCapacity;
+            hashtable = target;
+            return;
+        }
+
+        oldHashtable = hashtable;
+        oldCapacity = capacity;
+        migrateIndex = 0;
+
+        capacity = newCapacity;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TreeMap<K, V>[] newHashtable = new TreeMap[newCapacity];
+        hashtable = newHashtable;
+    }
+
+    /**
+     * 判断是否可以立即扩容到 newCapacity。渐进式扩容时，如果上一次扩容还未迁移完成，则只能反向扩容（见 startResize）；
+     * 其他情况推迟到迁移完成之后，由之后的 put/remove 重新判断。迁移最多再需要 oldCapacity / MIGRATE_STEP 次操作，
+     * 这期间负载最多偏离阈值 oldCapacity / MIGRATE_STEP 个元素
+     */
+    private boolean canResize(int newCapacity) {
+        return null == oldHashtable || newCapacity == oldCapacity;
+    }
+
+    /**
+     * 渐进式扩容时，将旧哈希表中的 MIGRATE_STEP 个哈希桶迁移到新哈希表中。迁移完成后，释放旧哈希表。
+     */
+    private void migrate() {
+        if (null == oldHashtable) {
+            return;
+        }
+
+        for (int step = 0; step < MIGRATE_STEP && migrateIndex < oldCapacity; ++step, ++migrateIndex) {
+            TreeMap<K, V> map = oldHashtable[migrateIndex];
+            if (null == map) {
+                continue;
+            }
+
+            for (Entry<K, V> entry : map.entrySet()) {
+                getBucket(hashtable, hash(entry.getKey())).put(entry.getKey(), entry.getValue());
+            }
+            oldHashtable[migrateIndex] = null;
+        }
+
+        if (migrateIndex == oldCapacity) {
+            oldHashtable = null;
+        }
+    }
 }
@@ -1,6 +1,14 @@
 package map;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
+    /**
+     * 并行批量构建时，元素个数不超过该值的子树直接串行构建
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
     private class Node {
         K key;
         V value;
@@ -23,6 +31,36 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         size = 0;
     }
 
+    /**
+     * 由有序的键值对批量构建一棵平衡的二分搜索树，时间复杂度为 O(n)。每次选取中间的元素作为根节点，左右两边的元素分别构建左右子树
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的 BSTMap
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> bulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        BSTMap<K, V> map = new BSTMap<K, V>();
+        map.root = map.build(keys, values, 0, keys.length);
+        map.size = keys.length;
+        return map;
+    }
+
+    /**
+     * 与 bulkLoad 相同，但使用 fork-join 并行地构建左右子树
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的 BSTMap
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> parallelBulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        BSTMap<K, V> map = new BSTMap<K, V>();
+        map.root = ForkJoinPool.commonPool().invoke(map.new BuildTask(keys, values, 0, keys.length));
+        map.size = keys.length;
+        return map;
+    }
+
     @Override
     public boolean contains(K key) {
         return getNode(root, key) != null;
@@ -80,7 +118,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
             return null;
         }
 
-        root = removeNode(node, key);
+        root = removeNode(root, key);
 
         return node.value;
     }
@@ -190,4 +228,69 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         return size;
     }
 
+    /**
+     * 将 [lo, hi) 中的键值对构建成平衡的二分搜索树，返回树的根节点
+     */
+    private Node build(K[] keys, V[] values, int lo, int hi) {
+        if (lo == hi) {
+            return null;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+        Node node = new Node(keys[mid], values[mid]);
+        node.left = build(keys, values, lo, mid);
+        node.right = build(keys, values, mid + 1, hi);
+        return node;
+    }
+
+    /**
+     * 并行构建的子任务，负责将 [lo, hi) 中的键值对构建成平衡的二分搜索树
+     */
+    private class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private K[] keys;
+        private V[] values;
+        private int lo;
+        private int hi;
+
+        public BuildTask(K[] keys, V[] values, int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Node compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                return build(keys, values, lo, hi);
+            }
+
+            int mid = lo + (hi - lo) / 2;
+            BuildTask left = new BuildTask(keys, values, lo, mid);
+            BuildTask right = new BuildTask(keys, values, mid + 1, hi);
+            invokeAll(left, right);
+
+            Node node = new Node(keys[mid], values[mid]);
+            node.left = left.join();
+            node.right = right.join();
+            return node;
+        }
+    }
+
+    /**
+     * 检查批量构建的参数：keys 与 values 的长度相同，并且 keys 严格递增
+     */
+    private static <K extends Comparable<K>, V> void checkSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length!");
+        }
+        for (int i = 1; i < keys.length; ++i) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing!");
+            }
+        }
+    }
+
 }
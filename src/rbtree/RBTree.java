@@ -1,8 +1,15 @@
 package rbtree;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import map.Map;
 
@@ -36,6 +43,8 @@ import map.Map;
  *   （1）二分搜索树：对于完全随机的数据，其性能不差。但是在极端情况下，会退化成链表（即插入的元素完全有序）或高度不平衡（即插入的元素基本有序）
  *   （2）AVL 树：查找性能较好，但是自平衡操作较复杂，耗时略多
  *   （3）红黑树：是一种近似平衡的树，牺牲了一定的平衡性，高度从 logn 变成 2*logn，查找性能比 AVL 树差，但是统计性能更优（综合增删改查操作）
+ *
+ *   每个节点额外记录以其为根的子树中的节点个数，从而支持 O(logn) 的 rank、select 查询。
  */
 public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
 
@@ -45,18 +54,25 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
     private static final boolean RED = true;
     private static final boolean BLACK = false;
 
+    /**
+     * 并行批量构建时，元素个数不超过该值的子树直接串行构建
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
     private class Node {
         K key;
         V val;
         Node left;
         Node right;
         boolean color;
+        int count; // 以该节点为根的子树中的节点个数
 
         public Node(K key, V val) {
             this.key = key;
             this.val = val;
             left = null;
             right = null;
+            count = 1;
             color = RED; // 由于 2-3 树添加操作的限制，新添加的节点不能添加到空节点的位置上，因此新添加的节点都是和已有节点融合。
                          // 而在红黑树中，与其他节点融合的节点是红色的，因此新节点默认颜色为红色。
         }
@@ -65,9 +81,54 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
     private Node root;
     private int size;
 
+    /**
+     * 添加、删除时使用的路径栈，path[0, depth) 依次为从根顶点到当前节点路径上的节点。在各次操作之间复用，避免每次操作分配内存
+     */
+    private Node[] path;
+
+    /**
+     * 路径栈的容量。n 个节点的左倾红黑树高度不超过 2 * log2(n + 1)，元素个数不超过 Integer.MAX_VALUE 时，高度不超过 62，
+     * 所以路径栈不会溢出。push 在栈满时依然会扩容，不依赖于该上界
+     */
+    private static final int PATH_CAPACITY = 64;
+
     public RBTree() {
         root = null;
         size = 0;
+        path = newPath(PATH_CAPACITY);
+    }
+
+    /**
+     * 由有序的键值对批量构建红黑树，时间复杂度为 O(n)。
+     * 红黑树与 2-3 树等价：先根据元素个数 n 确定 2-3 树的高度 h（即黑色节点的高度，满足 2^h - 1 <= n <= 3^h - 1），
+     * 然后自顶向下，将每一段有序的键值对构建成一个 2 节点（一个黑色节点）或 3 节点（黑色节点及其红色左子节点），
+     * 剩余的元素平均分配到各个子树中，使得每棵子树的元素个数都能构成高度为 h - 1 的 2-3 树
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的红黑树
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> bulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        RBTree<K, V> tree = new RBTree<K, V>();
+        tree.root = tree.build(keys, values, 0, keys.length, blackHeight(keys.length));
+        tree.size = keys.length;
+        return tree;
+    }
+
+    /**
+     * 与 bulkLoad 相同，但使用 fork-join 并行地构建各棵子树
+     * @param keys   严格递增的键
+     * @param values 与 keys 一一对应的值
+     * @return 构建好的红黑树
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> parallelBulkLoad(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        RBTree<K, V> tree = new RBTree<K, V>();
+        tree.root = ForkJoinPool.commonPool().invoke(tree.new BuildTask(keys, values, 0, keys.length, blackHeight(keys.length)));
+        tree.size = keys.length;
+        return tree;
     }
 
     @Override
@@ -75,12 +136,77 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         return null != get(root, key);
     }
 
+    /**
+     * 非递归实现：从根顶点向下查找，将经过的节点记录在 path 中；添加新节点后，再沿着 path 自底向上进行旋转、颜色翻转。
+     * 若某个黑色节点没有进行任何调整，则其祖先节点所看到的子树（根节点及其颜色）与添加前相同，此时停止调整，只需继续更新子树的节点个数
+     */
     @Override
     public void put(K key, V value) {
-        root = put(root, key, value);
+        if (null == root) {
+            ++size;
+            root = new Node(key, value);
+            root.color = BLACK;
+            return;
+        }
+
+        int depth = 0;
+        Node node = root;
+        Node parent = null;
+        int cmp = 0;
+        while (null != node) {
+            cmp = key.compareTo(node.key);
+            if (0 == cmp) {
+                node.val = value; // key 已经存在，只更新值，树的结构不变
+                return;
+            }
+            push(depth++, node);
+            parent = node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        if (cmp < 0) {
+            parent.left = new Node(key, value);
+        } else {
+            parent.right = new Node(key, value);
+        }
+        ++size;
+
+        boolean balanced = false;
+        for (int i = depth - 1; i >= 0; --i) {
+            node = path[i];
+            ++node.count;
+            if (balanced) {
+                continue;
+            }
+
+            // 添加节点后，根据树的形状及节点颜色，进行相应操作
+            Node newNode = node;
+            if (isRed(newNode.right) && !isRed(newNode.left)) {
+                newNode = leftRotate(newNode);
+            }
+            if (isRed(newNode.left) && isRed(newNode.left.left)) {
+                newNode = rightRotate(newNode);
+            }
+            boolean flipped = isRed(newNode.left) && isRed(newNode.right);
+            if (flipped) {
+                flipColor(newNode);
+            }
+
+            if (newNode != node) {
+                replaceChild(i, node, newNode);
+            }
+            balanced = newNode == node && !flipped && !isRed(node);
+        }
+
         root.color = BLACK; // 保持根节点始终是黑色
     }
 
+    /**
+     * 非递归实现（左倾红黑树的删除）：
+     *  （1）自顶向下查找时，通过旋转及颜色翻转，保证当前节点或其左子节点是红色的（即当前节点不是 2-3 树中的 2 节点），
+     *      这样删除底部的节点时，不会破坏黑色平衡
+     *  （2）删除后，沿着 path 自底向上修复右倾的红色链接及连续的红色链接
+     */
     @Override
     public V remove(K key) {
         Node node = get(root, key);
@@ -89,9 +215,70 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         }
         
         // 树中存在 key 对应的节点，则执行删除操作
-        root = remove(root, key);
-        
-        return node.val;
+        V ret = node.val;
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
+        }
+
+        int depth = 0;
+        node = root;
+        while (true) {
+            Node newNode = node;
+            if (key.compareTo(newNode.key) < 0) {
+                if (!isRed(newNode.left) && !isRed(newNode.left.left)) {
+                    newNode = moveRedLeft(newNode);
+                }
+                replaceChild(depth, node, newNode);
+                push(depth++, newNode);
+                node = newNode.left;
+                continue;
+            }
+
+            if (isRed(newNode.left)) {
+                newNode = rightRotate(newNode);
+            }
+            if (0 == key.compareTo(newNode.key) && null == newNode.right) {
+                replaceChild(depth, node, null); // 待删除的节点位于底部，直接删除
+                break;
+            }
+            if (!isRed(newNode.right) && !isRed(newNode.right.left)) {
+                newNode = moveRedRight(newNode);
+            }
+            replaceChild(depth, node, newNode);
+            push(depth++, newNode);
+
+            if (0 == key.compareTo(newNode.key)) {
+                // 从右子树中取出最小节点来代替 newNode，转而删除该最小节点
+                Node minNode = newNode.right;
+                while (null != minNode.left) {
+                    Node newMinNode = minNode;
+                    if (!isRed(newMinNode.left) && !isRed(newMinNode.left.left)) {
+                        newMinNode = moveRedLeft(newMinNode);
+                    }
+                    replaceChild(depth, minNode, newMinNode);
+                    push(depth++, newMinNode);
+                    minNode = newMinNode.left;
+                }
+                newNode.key = minNode.key;
+                newNode.val = minNode.val;
+                replaceChild(depth, minNode, null);
+                break;
+            }
+            node = newNode.right;
+        }
+        --size;
+
+        for (int i = depth - 1; i >= 0; --i) {
+            Node newNode = fixUp(path[i]);
+            if (newNode != path[i]) {
+                replaceChild(i, path[i], newNode);
+            }
+        }
+
+        if (null != root) {
+            root.color = BLACK;
+        }
+        return ret;
     }
 
     @Override
@@ -114,6 +301,118 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         return size;
     }
 
+    /**
+     * @return 小于等于 key 的最大键。如果不存在，则返回 null
+     */
+    public K floor(K key) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (0 == cmp) {
+                return node.key;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                result = node; // node 是一个候选，继续在右子树中寻找更大的
+                node = node.right;
+            }
+        }
+        return null == result ? null : result.key;
+    }
+
+    /**
+     * @return 大于等于 key 的最小键。如果不存在，则返回 null
+     */
+    public K ceiling(K key) {
+        Node node = ceilingNode(key, true);
+        return null == node ? null : node.key;
+    }
+
+    /**
+     * @return 严格小于 key 的最大键。如果不存在，则返回 null
+     */
+    public K lower(K key) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                result = node;
+                node = node.right;
+            }
+        }
+        return null == result ? null : result.key;
+    }
+
+    /**
+     * @return 严格大于 key 的最小键。如果不存在，则返回 null
+     */
+    public K higher(K key) {
+        Node node = ceilingNode(key, false);
+        return null == node ? null : node.key;
+    }
+
+    /**
+     * 获取 key 的排名
+     * @param key 键（不必存在于树中）
+     * @return 树中小于 key 的键的个数
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node node = root;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp <= 0) {
+                if (0 == cmp) {
+                    return rank + count(node.left);
+                }
+                node = node.left;
+            } else {
+                rank += count(node.left) + 1; // 左子树及 node 都小于 key
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 获取排名为 index 的键，即第 index + 1 小的键
+     * @param index 排名，从 0 开始
+     * @return 排名为 index 的键
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        Node node = root;
+        while (true) {
+            int leftCount = count(node.left);
+            if (index < leftCount) {
+                node = node.left;
+            } else if (index > leftCount) {
+                index -= leftCount + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * 按键的升序，惰性地遍历 [from, to) 范围内的键值对。获取迭代器的时间复杂度为 O(logn)，之后每次 next 的均摊时间复杂度为 O(1)
+     * 注意：遍历过程中不能修改树
+     * @param from 起始键（包含）
+     * @param to   结束键（不包含）
+     * @return 范围内键值对的迭代器
+     */
+    public Iterator<Entry<K, V>> subMap(K from, K to) {
+        return new RangeIterator(from, to);
+    }
+
     /**
      * 验证是否是二分搜索树。如果是，则返回 true；否则，返回 false。
      * @return 如果树是二分搜索树，则返回 true；否则，返回 false。
@@ -197,133 +496,302 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
      * @return  键值为 key 的节点。如果能找到，则返回该节点；否则，返回 null
      */
     private Node get(Node root, K key) {
-        if (null == root) {
-            return null;
+        Node node = root;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else { // key == node.key
+                return node;
+            }
         }
-        
-        if (key.compareTo(root.key) < 0) {
-            return get(root.left, key);
-        } else if (key.compareTo(root.key) > 0) {
-            return get(root.right, key);
-        } else { // key == root.key
-            return root;
+        return null;
+    }
+    
+    /**
+     * 创建长度为 length 的路径栈。Node 是泛型类的内部类，不能直接创建 Node[]，只能创建原始类型的数组再进行转换
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node[] newPath(int length) {
+        return (Node[]) new RBTree.Node[length];
+    }
+
+    /**
+     * 将节点 node 记录在路径栈的第 depth 个位置，栈满时扩容
+     */
+    private void push(int depth, Node node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
         }
+        path[depth] = node;
     }
     
     /**
-     * 在以 root 为根顶点的树中，如果不存在 key 对应的节点，则添加节点 (key, val)，否则将 key 对应节点的值更新为 val。
-     * @param root  根顶点
-     * @param key   键
-     * @param val   值
-     * @return      添加顶点后，新树的根顶点
+     * 在路径栈第 depth 个节点的父节点（即 path[depth - 1]，depth 为 0 时即为根顶点的位置）中，用 newChild 代替子节点 oldChild
      */
-    private Node put(Node root, K key, V val) {
-        if (null == root) {
-            ++size;
-            return new Node(key, val);
+    private void replaceChild(int depth, Node oldChild, Node newChild) {
+        if (0 == depth) {
+            root = newChild;
+        } else if (path[depth - 1].left == oldChild) {
+            path[depth - 1].left = newChild;
+        } else {
+            path[depth - 1].right = newChild;
         }
-        
-        if (key.compareTo(root.key) < 0) {
-            root.left = put(root.left, key, val);
-        } else if (key.compareTo(root.key) > 0) {
-            root.right = put(root.right, key, val);
-        } else { // key == root.key
-            root.val = val;
+    }
+    
+    /**
+     * 删除时，node 及其左右子节点均为黑色（node 自身为红色），通过颜色翻转（以及必要的旋转），使得 node 的左子节点或其左子节点为红色
+     * @param node 根顶点
+     * @return 调整后树的根顶点
+     */
+    private Node moveRedLeft(Node node) {
+        flipColor(node);
+        if (isRed(node.right.left)) {
+            node.right = rightRotate(node.right);
+            node = leftRotate(node);
+            flipColor(node);
         }
-        
-        // 添加节点后，根据树的形状及节点颜色，进行相应操作
-        if (isRed(root.right) && !isRed(root.left)) {
-            root = leftRotate(root);
+        return node;
+    }
+    
+    /**
+     * 删除时，使得 node 的右子节点或其右子节点的左子节点为红色
+     * @param node 根顶点
+     * @return 调整后树的根顶点
+     */
+    private Node moveRedRight(Node node) {
+        flipColor(node);
+        if (isRed(node.left.left)) {
+            node = rightRotate(node);
+            flipColor(node);
         }
+        return node;
+    }
+    
+    /**
+     * 删除后，修复以 node 为根顶点的树中右倾的红色链接及连续的红色链接，并更新子树的节点个数
+     * @param node 根顶点
+     * @return 修复后树的根顶点
+     */
+    private Node fixUp(Node node) {
+        node.count = count(node.left) + count(node.right) + 1;
         
-        if (isRed(root.left) && isRed(root.left.left)) {
-            root = rightRotate(root);
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = leftRotate(node);
         }
-        
-        if (isRed(root.left) && isRed(root.right)) {
-            flipColor(root);
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rightRotate(node);
         }
-        
-        return root;
+        if (isRed(node.left) && isRed(node.right)) {
+            flipColor(node);
+        }
+        return node;
     }
     
     /**
-     * 在以 root 为根顶点的树中，取出最小节点
-     * @param root 根顶点
-     * @return 树中最小的节点
+     * 获取大于等于 key（inclusive 为 true）或严格大于 key（inclusive 为 false）的最小节点
      */
-    private Node getMinNode(Node root) {
-        if (null == root || null == root.left) {
-            return root;
+    private Node ceilingNode(K key, boolean inclusive) {
+        Node node = root;
+        Node result = null;
+        while (null != node) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0 || (inclusive && 0 == cmp)) {
+                result = node; // node 是一个候选，继续在左子树中寻找更小的
+                node = node.left;
+            } else {
+                node = node.right;
+            }
         }
-        
-        return getMinNode(root.left);
+        return result;
     }
-    
+
     /**
-     * 在以 root 为根顶点的树中，删除最小节点，并返回新树的根顶点。
-     * @param root 根顶点
-     * @return 删除最小顶点后，新树的根顶点
+     * [from, to) 范围内的迭代器。栈中保存尚未访问的、键大于等于 from 的祖先节点，栈顶即为下一个节点
      */
-    private Node removeMinNode(Node root) {
-        if (null == root) {
-            return null;
+    private class RangeIterator implements Iterator<Entry<K, V>> {
+        private LinkedList<Node> stack = new LinkedList<Node>();
+        private K to;
+
+        public RangeIterator(K from, K to) {
+            this.to = to;
+
+            // 从根节点出发寻找 from，沿途将键大于等于 from 的节点入栈
+            Node node = root;
+            while (null != node) {
+                if (from.compareTo(node.key) <= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
         }
-        
-        if (null == root.left) { // 最小节点
-            --size;
-            Node ret = root.right;
-            root.right = null;
-            return ret;
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && stack.peek().key.compareTo(to) < 0;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Node node = stack.pop();
+            // 下一个节点为右子树中的最小节点，将右子树的左链入栈
+            for (Node cur = node.right; null != cur; cur = cur.left) {
+                stack.push(cur);
+            }
+            return new SimpleImmutableEntry<K, V>(node.key, node.val);
         }
-        
-        root.left = removeMinNode(root.left);
-        
-        return root;
     }
-    
-    
+
     /**
-     * 在以 root 为根顶点的树中，删除 key 对应的节点。（调用此函数，必须确保树中存在 key）
-     * @param root 根顶点
-     * @param key  待删除顶点的键值
-     * @return     删除顶点后，新树的根顶点
+     * 将 [lo, hi) 中的键值对构建成黑色高度为 blackHeight 的红黑树
+     * @return 树的根顶点
      */
-    private Node remove(Node root, K key) {
-        if (null == root) {
+    private Node build(K[] keys, V[] values, int lo, int hi, int blackHeight) {
+        int n = hi - lo;
+        if (0 == n) {
             return null;
         }
-        
-        if (key.compareTo(root.key) < 0) {
-            root.left = remove(root.left, key);
-        } else if (key.compareTo(root.key) > 0) {
-            root.right = remove(root.right, key);
-        } else { // key == root.key
-            if (null == root.left) {
-                Node ret = root.right;
-                root.right = null;
-                --size;
-                return ret;
+
+        if (!isThreeNode(n, blackHeight)) {
+            int mid = lo + (n - 1) / 2;
+            Node node = newNode(keys, values, mid, BLACK, n);
+            node.left = build(keys, values, lo, mid, blackHeight - 1);
+            node.right = build(keys, values, mid + 1, hi, blackHeight - 1);
+            return node;
+        }
+
+        int red = redIndex(lo, n);
+        int black = blackIndex(lo, n);
+        Node node = newNode(keys, values, black, BLACK, n);
+        node.left = newNode(keys, values, red, RED, black - lo);
+        node.left.left = build(keys, values, lo, red, blackHeight - 1);
+        node.left.right = build(keys, values, red + 1, black, blackHeight - 1);
+        node.right = build(keys, values, black + 1, hi, blackHeight - 1);
+        return node;
+    }
+
+    /**
+     * 并行构建的子任务，负责将 [lo, hi) 中的键值对构建成黑色高度为 blackHeight 的红黑树（与 build 相同）
+     */
+    private class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private K[] keys;
+        private V[] values;
+        private int lo;
+        private int hi;
+        private int blackHeight;
+
+        public BuildTask(K[] keys, V[] values, int lo, int hi, int blackHeight) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
+            this.blackHeight = blackHeight;
+        }
+
+        @Override
+        protected Node compute() {
+            int n = hi - lo;
+            if (n <= PARALLEL_THRESHOLD) {
+                return build(keys, values, lo, hi, blackHeight);
             }
-            
-            if (null == root.right) {
-                Node ret = root.left;
-                root.left = null;
-                --size;
-                return ret;
+
+            if (!isThreeNode(n, blackHeight)) {
+                int mid = lo + (n - 1) / 2;
+                Node node = newNode(keys, values, mid, BLACK, n);
+                BuildTask left = new BuildTask(keys, values, lo, mid, blackHeight - 1);
+                BuildTask right = new BuildTask(keys, values, mid + 1, hi, blackHeight - 1);
+                invokeAll(left, right);
+                node.left = left.join();
+                node.right = right.join();
+                return node;
             }
-            
-            // 左右子树均不为空，则从右子树中取出最小顶点来代替 root
-            Node minNode = getMinNode(root.right);
-            minNode.right = removeMinNode(root.right);
-            minNode.left = root.left;
-            root.left = root.right = null;
-            return minNode;
+
+            int red = redIndex(lo, n);
+            int black = blackIndex(lo, n);
+            Node node = newNode(keys, values, black, BLACK, n);
+            node.left = newNode(keys, values, red, RED, black - lo);
+            BuildTask first = new BuildTask(keys, values, lo, red, blackHeight - 1);
+            BuildTask second = new BuildTask(keys, values, red + 1, black, blackHeight - 1);
+            BuildTask third = new BuildTask(keys, values, black + 1, hi, blackHeight - 1);
+            invokeAll(first, second, third);
+            node.left.left = first.join();
+            node.left.right = second.join();
+            node.right = third.join();
+            return node;
         }
-        
-        return root;
     }
-    
+
+    private Node newNode(K[] keys, V[] values, int index, boolean color, int count) {
+        Node node = new Node(keys[index], values[index]);
+        node.color = color;
+        node.count = count;
+        return node;
+    }
+
+    /**
+     * n 个元素能够构成的 2-3 树的最大高度，即满足 2^h - 1 <= n 的最大的 h
+     */
+    private static int blackHeight(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n + 1);
+    }
+
+    /**
+     * 高度为 h 的 2-3 树最多含有的元素个数，即 3^h - 1
+     */
+    private static long maxSize(int h) {
+        long max = 1;
+        for (int i = 0; i < h; ++i) {
+            max *= 3;
+        }
+        return max - 1;
+    }
+
+    /**
+     * 构建高度为 blackHeight、含有 n 个元素的 2-3 树时，若根节点作为 2 节点，剩余的元素无法放入两棵子树中，则根节点需要作为 3 节点
+     */
+    private static boolean isThreeNode(int n, int blackHeight) {
+        return n - 1 > 2 * maxSize(blackHeight - 1);
+    }
+
+    /**
+     * 3 节点中红色节点的位置：剩余的 n - 2 个元素平均分成三份，红色节点位于第一份之后
+     */
+    private static int redIndex(int lo, int n) {
+        return lo + (n - 2) / 3;
+    }
+
+    /**
+     * 3 节点中黑色节点的位置，位于第二份之后
+     */
+    private static int blackIndex(int lo, int n) {
+        int first = (n - 2) / 3;
+        return lo + first + 1 + (n - 2 - first) / 2;
+    }
+
+    /**
+     * 检查批量构建的参数：keys 与 values 的长度相同，并且 keys 严格递增
+     */
+    private static <K extends Comparable<K>, V> void checkSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length!");
+        }
+        for (int i = 1; i < keys.length; ++i) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing!");
+            }
+        }
+    }
+
     private void inOrder(Node root, List<K> result) {
         if (null == root) {
             return;
@@ -334,6 +802,13 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         inOrder(root.right, result);
     }
     
+    /**
+     * 获取以 node 为根的子树中的节点个数
+     */
+    private int count(Node node) {
+        return null == node ? 0 : node.count;
+    }
+    
     private String getColorInfo(boolean color) {
         return RED == color ? "red" : "black"; 
     }
@@ -372,6 +847,10 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         x.color = node.color;
         node.color = RED;
         
+        // 更新子树的节点个数：x 代替 node 成为根顶点，子树的节点个数不变
+        x.count = node.count;
+        node.count = count(node.left) + count(node.right) + 1;
+        
         return x;
     }
     
@@ -396,6 +875,10 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
         x.color = node.color;
         node.color = RED;
         
+        // 更新子树的节点个数：x 代替 node 成为根顶点，子树的节点个数不变
+        x.count = node.count;
+        node.count = count(node.left) + count(node.right) + 1;
+        
         return x;
     }
     
@@ -404,13 +887,13 @@ public class RBTree<K extends Comparable<K>, V> implements Map<K, V> {
      *              /   \            颜色翻转         /   \
      *           L(红色)  R(红色)    ==========>   L(黑色) R(黑色)
      *             
-     * 将以 node 为根顶点的树进行颜色翻转
+     * 将以 node 为根顶点的树进行颜色翻转。删除时也用于反向翻转（node 由红色变为黑色，两个子节点由黑色变为红色）
      * @param node 根顶点
      * @return 颜色翻转后树的根顶点
      */
     private void flipColor(Node node) {
-        node.color = RED;
-        node.left.color = BLACK;
-        node.right.color = BLACK;
+        node.color = !node.color;
+        node.left.color = !node.left.color;
+        node.right.color = !node.right.color;
     }
 }
@@ -0,0 +1,251 @@
+package segmenttree;
+
+/**
+ * 支持区间更新的线段树（懒惰传播，Lazy Propagation）
+ *
+ * 在 SegmentTree 中，只能更新单个元素，若要更新区间 [l, r] 内的所有元素，需要逐个更新，时间复杂度为 O(nlogn)。
+ * 懒惰传播的思路是：更新区间时，若某个节点对应的区间被更新区间完全覆盖，则只更新该节点的值，并在该节点上记录一个“懒惰标记”，
+ * 不再继续向下更新其子树。之后访问到该节点的子节点时，才将懒惰标记下推到子节点。因此，区间更新、区间查询的时间复杂度均为 O(logn)。
+ *
+ * 支持两种区间更新操作：
+ *  （1）区间加：区间内每个元素都加上 delta
+ *  （2）区间赋值：区间内每个元素都赋值为 e
+ * 一个节点上可能同时存在两种标记，其含义是：先赋值，再加上增量。因此，赋值时需要清除节点上已有的增量标记。
+ */
+public class LazySegmentTree<E> {
+
+    /**
+     * 线段树数组，存储区间值
+     */
+    private E[] tree;
+
+    /**
+     * 区间加的懒惰标记，null 表示没有标记
+     */
+    private E[] addTag;
+
+    /**
+     * 区间赋值的懒惰标记，null 表示没有标记
+     */
+    private E[] assignTag;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    private Merger<E> merger;
+
+    private Updater<E> updater;
+
+    @SuppressWarnings("unchecked")
+    public LazySegmentTree(E[] arr, Merger<E> merger, Updater<E> updater) {
+        this.size = arr.length;
+        this.merger = merger;
+        this.updater = updater;
+
+        tree = (E[]) new Object[4 * arr.length];
+        addTag = (E[]) new Object[4 * arr.length];
+        assignTag = (E[]) new Object[4 * arr.length];
+
+        if (arr.length > 0) {
+            buildSegmentTree(arr, 0, 0, arr.length - 1);
+        }
+    }
+
+    /**
+     * 在线段树中查询区间 [queryLeft, queryRight] 之间的值
+     * @param queryLeft  区间的左边界值
+     * @param queryRight 区间的右边界值
+     * @return 线段树中 [queryLeft, queryRight] 之间的值
+     */
+    public E query(int queryLeft, int queryRight) {
+        checkRange(queryLeft, queryRight);
+
+        return query(0, 0, size - 1, queryLeft, queryRight);
+    }
+
+    /**
+     * 将区间 [updateLeft, updateRight] 内的每个元素都加上 delta
+     * @param updateLeft  区间的左边界值
+     * @param updateRight 区间的右边界值
+     * @param delta       增量
+     */
+    public void add(int updateLeft, int updateRight, E delta) {
+        checkRange(updateLeft, updateRight);
+
+        update(0, 0, size - 1, updateLeft, updateRight, delta, false);
+    }
+
+    /**
+     * 将区间 [updateLeft, updateRight] 内的每个元素都赋值为 e
+     * @param updateLeft  区间的左边界值
+     * @param updateRight 区间的右边界值
+     * @param e           元素的新值
+     */
+    public void assign(int updateLeft, int updateRight, E e) {
+        checkRange(updateLeft, updateRight);
+
+        update(0, 0, size - 1, updateLeft, updateRight, e, true);
+    }
+
+    /**
+     * 更新 index 指定索引处的元素
+     * @param index 待更新元素的索引
+     * @param e     元素的新值
+     */
+    public void update(int index, E e) {
+        assign(index, index, e);
+    }
+
+    /**
+     * 返回 index 指定索引处的元素
+     *
+     * @param index 元素的索引
+     * @return 指定索引处的元素
+     */
+    public E get(int index) {
+        return query(index, index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 0 || right >= size || left > right) {
+            throw new IllegalArgumentException("Illegal range!");
+        }
+    }
+
+    /**
+     * 以 root 为根节点，构建一棵区间为 [left, right] 的线段树
+     */
+    private void buildSegmentTree(E[] arr, int root, int left, int right) {
+        if (left == right) {
+            tree[root] = arr[left];
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+        buildSegmentTree(arr, leftChild(root), left, mid);
+        buildSegmentTree(arr, rightChild(root), mid + 1, right);
+
+        tree[root] = merger.merge(tree[leftChild(root)], tree[rightChild(root)]);
+    }
+
+    /**
+     * 在以 root 为根节点的线段树中查询 [queryLeft, queryRight] 区间的值
+     * @param root          线段树的根节点
+     * @param left          root 对应区间的左边边界
+     * @param right         root 对应区间的右边界
+     * @param queryLeft     查询区间的左边界
+     * @param queryRight    查询区间的右边界
+     * @return
+     */
+    private E query(int root, int left, int right, int queryLeft, int queryRight) {
+        if (left == queryLeft && right == queryRight) {
+            return tree[root];
+        }
+
+        // 需要访问子节点，先将 root 上的懒惰标记下推
+        pushDown(root, left, right);
+
+        int mid = left + (right - left) / 2;
+        if (queryRight <= mid) {
+            return query(leftChild(root), left, mid, queryLeft, queryRight);
+        } else if (queryLeft >= mid + 1) {
+            return query(rightChild(root), mid + 1, right, queryLeft, queryRight);
+        }
+
+        E leftResult = query(leftChild(root), left, mid, queryLeft, mid);
+        E rightResult = query(rightChild(root), mid + 1, right, mid + 1, queryRight);
+        return merger.merge(leftResult, rightResult);
+    }
+
+    /**
+     * 在以 root 为根节点的线段树中，对区间 [updateLeft, updateRight] 进行区间加或区间赋值
+     * @param root        线段树的根节点
+     * @param left        root 对应区间的左边边界
+     * @param right       root 对应区间的右边界
+     * @param updateLeft  更新区间的左边界
+     * @param updateRight 更新区间的右边界
+     * @param e           增量或新值
+     * @param isAssign    true 表示区间赋值，false 表示区间加
+     */
+    private void update(int root, int left, int right, int updateLeft, int updateRight, E e, boolean isAssign) {
+        // root 对应的区间被更新区间完全覆盖，则只更新 root，并打上懒惰标记
+        if (left == updateLeft && right == updateRight) {
+            if (isAssign) {
+                applyAssign(root, left, right, e);
+            } else {
+                applyAdd(root, left, right, e);
+            }
+            return;
+        }
+
+        pushDown(root, left, right);
+
+        int mid = left + (right - left) / 2;
+        if (updateRight <= mid) {
+            update(leftChild(root), left, mid, updateLeft, updateRight, e, isAssign);
+        } else if (updateLeft >= mid + 1) {
+            update(rightChild(root), mid + 1, right, updateLeft, updateRight, e, isAssign);
+        } else {
+            update(leftChild(root), left, mid, updateLeft, mid, e, isAssign);
+            update(rightChild(root), mid + 1, right, mid + 1, updateRight, e, isAssign);
+        }
+
+        tree[root] = merger.merge(tree[leftChild(root)], tree[rightChild(root)]);
+    }
+
+    /**
+     * 将 root 上的懒惰标记下推到左右子节点，并清除 root 上的标记。（先下推赋值标记，再下推增量标记）
+     */
+    private void pushDown(int root, int left, int right) {
+        int mid = left + (right - left) / 2;
+
+        if (null != assignTag[root]) {
+            applyAssign(leftChild(root), left, mid, assignTag[root]);
+            applyAssign(rightChild(root), mid + 1, right, assignTag[root]);
+            assignTag[root] = null;
+        }
+
+        if (null != addTag[root]) {
+            applyAdd(leftChild(root), left, mid, addTag[root]);
+            applyAdd(rightChild(root), mid + 1, right, addTag[root]);
+            addTag[root] = null;
+        }
+    }
+
+    /**
+     * 将区间 [left, right] 对应的节点 root 赋值为 e，并覆盖其原有的所有标记
+     */
+    private void applyAssign(int root, int left, int right, E e) {
+        tree[root] = updater.assign(e, right - left + 1);
+        assignTag[root] = e;
+        addTag[root] = null; // 赋值会使之前的增量失效
+    }
+
+    /**
+     * 将区间 [left, right] 对应的节点 root 加上 delta，并与其原有的增量标记合并
+     */
+    private void applyAdd(int root, int left, int right, E delta) {
+        tree[root] = updater.add(tree[root], delta, right - left + 1);
+        addTag[root] = null == addTag[root] ? delta : updater.combine(addTag[root], delta);
+    }
+
+    /**
+     * 获取下标为 i 的节点的左子节点
+     */
+    private int leftChild(int i) {
+        return 2 * i + 1;
+    }
+
+    /**
+     * 获取下标为 i 的节点的右子节点
+     */
+    private int rightChild(int i) {
+        return 2 * i + 2;
+    }
+}
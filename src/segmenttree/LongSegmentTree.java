@@ -0,0 +1,124 @@
+package segmenttree;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 存储 long 元素的线段树，自底向上、非递归实现
+ *
+ * 与 SegmentTree 相比：
+ *  （1）使用 long 数组存储，不需要装箱
+ *  （2）tree 数组的长度为 2n，而不是 4n。叶子节点存放在 tree[n, 2n) 中，tree[i] 的左右子节点分别为 tree[2i]、tree[2i+1]（tree[0] 不使用）
+ *  （3）查询、更新均从叶子节点出发，循环向上进行，没有递归调用
+ *
+ * 要求合并操作满足结合律，且 identity 为合并操作的单位元（即 merge(identity, e) = merge(e, identity) = e）
+ */
+public class LongSegmentTree {
+
+    private long[] tree;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    private LongBinaryOperator merger;
+
+    /**
+     * 合并操作的单位元，如：求和时为 0，求最小值时为 Long.MAX_VALUE
+     */
+    private long identity;
+
+    public LongSegmentTree(long[] arr, LongBinaryOperator merger, long identity) {
+        this.size = arr.length;
+        this.merger = merger;
+        this.identity = identity;
+
+        tree = new long[2 * size];
+        System.arraycopy(arr, 0, tree, size, size);
+        for (int i = size - 1; i > 0; --i) {
+            tree[i] = merger.applyAsLong(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * 创建区间求和的线段树
+     */
+    public static LongSegmentTree sum(long[] arr) {
+        return new LongSegmentTree(arr, (a, b) -> a + b, 0);
+    }
+
+    /**
+     * 创建区间求最小值的线段树
+     */
+    public static LongSegmentTree min(long[] arr) {
+        return new LongSegmentTree(arr, Math::min, Long.MAX_VALUE);
+    }
+
+    /**
+     * 创建区间求最大值的线段树
+     */
+    public static LongSegmentTree max(long[] arr) {
+        return new LongSegmentTree(arr, Math::max, Long.MIN_VALUE);
+    }
+
+    /**
+     * 在线段树中查询区间 [queryLeft, queryRight] 之间的值
+     * @param queryLeft  区间的左边界值
+     * @param queryRight 区间的右边界值
+     * @return 线段树中 [queryLeft, queryRight] 之间的值
+     */
+    public long query(int queryLeft, int queryRight) {
+        if (queryLeft < 0 || queryRight >= size || queryLeft > queryRight) {
+            throw new IllegalArgumentException("Illegal query range!");
+        }
+
+        // 在 tree 中查询左闭右开区间 [left, right)，左右两侧的结果分开累积，从而保证合并的顺序
+        long leftResult = identity;
+        long rightResult = identity;
+        for (int left = queryLeft + size, right = queryRight + size + 1; left < right; left >>= 1, right >>= 1) {
+            if (1 == (left & 1)) { // left 是右子节点，其父节点的区间超出了查询范围，因此直接合并 left，然后移到右侧的节点
+                leftResult = merger.applyAsLong(leftResult, tree[left++]);
+            }
+            if (1 == (right & 1)) { // right 是右子节点，则 right - 1 是左子节点，合并 right - 1
+                rightResult = merger.applyAsLong(tree[--right], rightResult);
+            }
+        }
+
+        return merger.applyAsLong(leftResult, rightResult);
+    }
+
+    /**
+     * 更新 index 指定索引处的元素
+     * @param index 待更新元素的索引
+     * @param e     元素的新值
+     */
+    public void update(int index, long e) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index");
+        }
+
+        // 更新叶子节点，然后沿着父节点向上更新
+        int i = index + size;
+        tree[i] = e;
+        for (i >>= 1; i > 0; i >>= 1) {
+            tree[i] = merger.applyAsLong(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * 返回 index 指定索引处的元素
+     *
+     * @param index 元素的索引
+     * @return 指定索引处的元素
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+        return tree[index + size];
+    }
+
+    public int size() {
+        return size;
+    }
+}
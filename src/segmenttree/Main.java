@@ -8,5 +8,40 @@ public class Main {
         SegmentTree<Integer> segmentTree = new SegmentTree<Integer>(arr, (a, b) -> a + b);
         segmentTree.update(1, 10);
         System.out.println(segmentTree.query(1, 4));
+
+        testLazySegmentTree();
+
+        IntSegmentTree intSegmentTree = IntSegmentTree.sum(new int[] { 0, 1, 2, 3, 4, 5 });
+        intSegmentTree.update(1, 10);
+        System.out.println(intSegmentTree.query(1, 4)); // 19
+    }
+
+    private static void testLazySegmentTree() {
+        Integer[] arr = { 0, 1, 2, 3, 4, 5 };
+
+        // 区间求和
+        LazySegmentTree<Integer> segmentTree = new LazySegmentTree<Integer>(arr, (a, b) -> a + b,
+                new Updater<Integer>() {
+                    @Override
+                    public Integer add(Integer value, Integer delta, int length) {
+                        return value + delta * length;
+                    }
+
+                    @Override
+                    public Integer assign(Integer e, int length) {
+                        return e * length;
+                    }
+
+                    @Override
+                    public Integer combine(Integer delta1, Integer delta2) {
+                        return delta1 + delta2;
+                    }
+                });
+
+        segmentTree.add(1, 4, 10); // { 0, 11, 12, 13, 14, 5 }
+        System.out.println(segmentTree.query(0, 5)); // 55
+        segmentTree.assign(2, 5, 1); // { 0, 11, 1, 1, 1, 1 }
+        System.out.println(segmentTree.query(1, 3)); // 13
+        System.out.println(segmentTree.get(4)); // 1
     }
 }
@@ -0,0 +1,216 @@
+package segmenttree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可持久化线段树（Persistent Segment Tree），可以查询数组在任意历史版本下的区间值
+ *
+ * 每次更新时，并不修改原有节点，而是只复制从根节点到被更新叶子节点这一条路径上的节点（路径复制，Path Copying），
+ * 其余节点与上一个版本共享。因此，每次更新只会新建 O(logn) 个节点，且所有旧版本依然可以查询。
+ *
+ * 每个版本对应一个根节点。当某个版本不再需要时，可以调用 retire 将其退役，释放对其根节点的引用，
+ * 只被该版本使用的节点随后就可以被垃圾回收，从而限制内存的占用。
+ * 开头连续退役的版本（最老的若干版本）还会从 roots 中移除，所以只要旧版本被及时退役，roots 的长度就不会随着更新次数无限增长。
+ */
+public class PersistentSegmentTree<E> {
+
+    private class Node {
+        E val;
+        Node left;
+        Node right;
+
+        public Node(E val, Node left, Node right) {
+            this.val = val;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * 各个版本的根节点，roots.get(v - baseVersion) 为版本 v 的根节点。已退役的版本为 null
+     */
+    private List<Node> roots;
+
+    /**
+     * roots 中第一个元素对应的版本号
+     */
+    private int baseVersion;
+
+    /**
+     * 最老的未退役版本的版本号，比它更老的版本都已经退役。
+     * [baseVersion, oldestVersion) 中的版本等待从 roots 中移除，为了避免每次都移动整个列表，等其数量超过 roots 的一半时再一并移除
+     */
+    private int oldestVersion;
+
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    private Merger<E> merger;
+
+    public PersistentSegmentTree(E[] arr, Merger<E> merger) {
+        if (0 == arr.length) {
+            throw new IllegalArgumentException("Array is empty!");
+        }
+
+        this.size = arr.length;
+        this.merger = merger;
+
+        roots = new ArrayList<Node>();
+        roots.add(buildSegmentTree(arr, 0, arr.length - 1)); // 初始版本为 0
+        baseVersion = 0;
+        oldestVersion = 0;
+    }
+
+    /**
+     * 在最新版本的基础上，将 index 处的元素更新为 e，得到一个新版本
+     * @param index 待更新元素的索引
+     * @param e     元素的新值
+     * @return 新版本的版本号
+     */
+    public int update(int index, E e) {
+        return update(latestVersion(), index, e);
+    }
+
+    /**
+     * 在版本 version 的基础上，将 index 处的元素更新为 e，得到一个新版本（新版本号总是最大的）
+     * @param version 基于的版本
+     * @param index   待更新元素的索引
+     * @param e       元素的新值
+     * @return 新版本的版本号
+     */
+    public int update(int version, int index, E e) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index");
+        }
+
+        roots.add(update(getRoot(version), 0, size - 1, index, e));
+        return latestVersion();
+    }
+
+    /**
+     * 在最新版本中查询区间 [queryLeft, queryRight] 之间的值
+     */
+    public E query(int queryLeft, int queryRight) {
+        return query(latestVersion(), queryLeft, queryRight);
+    }
+
+    /**
+     * 在版本 version 中查询区间 [queryLeft, queryRight] 之间的值
+     * @param version    版本号
+     * @param queryLeft  区间的左边界值
+     * @param queryRight 区间的右边界值
+     * @return 版本 version 中 [queryLeft, queryRight] 之间的值
+     */
+    public E query(int version, int queryLeft, int queryRight) {
+        if (queryLeft < 0 || queryRight >= size || queryLeft > queryRight) {
+            throw new IllegalArgumentException("Illegal query range!");
+        }
+
+        return query(getRoot(version), 0, size - 1, queryLeft, queryRight);
+    }
+
+    /**
+     * 返回版本 version 中 index 处的元素
+     */
+    public E get(int version, int index) {
+        return query(version, index, index);
+    }
+
+    /**
+     * 退役版本 version，之后不能再查询该版本，也不能基于该版本进行更新。最新版本不能退役
+     * @param version 版本号
+     */
+    public void retire(int version) {
+        getRoot(version);
+        if (version == latestVersion()) {
+            throw new IllegalArgumentException("Latest version can't be retired!");
+        }
+
+        roots.set(version - baseVersion, null);
+
+        // 最老的版本退役后，跳过开头连续退役的版本，必要时将它们从 roots 中移除
+        while (null == roots.get(oldestVersion - baseVersion)) {
+            ++oldestVersion;
+        }
+        if (oldestVersion - baseVersion > roots.size() / 2) {
+            roots.subList(0, oldestVersion - baseVersion).clear();
+            baseVersion = oldestVersion;
+        }
+    }
+
+    /**
+     * @return 最新的版本号
+     */
+    public int latestVersion() {
+        return baseVersion + roots.size() - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Node getRoot(int version) {
+        if (version < oldestVersion || version > latestVersion() || null == roots.get(version - baseVersion)) {
+            throw new IllegalArgumentException("Illegal version!");
+        }
+        return roots.get(version - baseVersion);
+    }
+
+    /**
+     * 构建一棵区间为 [left, right] 的线段树，并返回其根节点
+     */
+    private Node buildSegmentTree(E[] arr, int left, int right) {
+        if (left == right) {
+            return new Node(arr[left], null, null);
+        }
+
+        int mid = left + (right - left) / 2;
+        Node leftChild = buildSegmentTree(arr, left, mid);
+        Node rightChild = buildSegmentTree(arr, mid + 1, right);
+        return new Node(merger.merge(leftChild.val, rightChild.val), leftChild, rightChild);
+    }
+
+    /**
+     * 在以 root 为根节点的线段树中查询 [queryLeft, queryRight] 区间的值
+     */
+    private E query(Node root, int left, int right, int queryLeft, int queryRight) {
+        if (left == queryLeft && right == queryRight) {
+            return root.val;
+        }
+
+        int mid = left + (right - left) / 2;
+        if (queryRight <= mid) {
+            return query(root.left, left, mid, queryLeft, queryRight);
+        } else if (queryLeft >= mid + 1) {
+            return query(root.right, mid + 1, right, queryLeft, queryRight);
+        }
+
+        E leftResult = query(root.left, left, mid, queryLeft, mid);
+        E rightResult = query(root.right, mid + 1, right, mid + 1, queryRight);
+        return merger.merge(leftResult, rightResult);
+    }
+
+    /**
+     * 复制从 root 到 index 对应叶子节点的路径，并在复制出的路径上将 index 处的元素更新为 e
+     * @return 新路径的根节点
+     */
+    private Node update(Node root, int left, int right, int index, E e) {
+        if (left == right) {
+            return new Node(e, null, null);
+        }
+
+        int mid = left + (right - left) / 2;
+        Node leftChild = root.left;
+        Node rightChild = root.right;
+        if (index <= mid) { // 只复制左子树中的路径，右子树与旧版本共享
+            leftChild = update(root.left, left, mid, index, e);
+        } else { // 只复制右子树中的路径，左子树与旧版本共享
+            rightChild = update(root.right, mid + 1, right, index, e);
+        }
+
+        return new Node(merger.merge(leftChild.val, rightChild.val), leftChild, rightChild);
+    }
+}
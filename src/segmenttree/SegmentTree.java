@@ -1,5 +1,11 @@
 package segmenttree;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * 线段树的特点：
  *  （1）可以高效地“查询”和“更新”一个“区间”的值
@@ -10,6 +16,11 @@ package segmenttree;
  *   注意：区间的长度是固定的，即待查询的元素个数是固定的，只是元素的值可能会发生变化
  */
 public class SegmentTree<E> {
+    /**
+     * 并行批量查询时，经过某个节点的查询个数超过该值时，才并行遍历其左右子树
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
     /**
      * 按照满二叉树的形式存储数据，非叶子节点存储区间值，非空叶子节点存储原始元素值
      * 满二叉树是一种特殊的完全二叉树，所以可以按照数组存储。但是为了能够存储所有的元素， tree 数组的长度 = 4 * data 数组的长度
@@ -24,6 +35,12 @@ public class SegmentTree<E> {
 
     private Merger<E> merger;
 
+    /**
+     * 批量查询使用的缓冲区，在多次批量查询之间复用。查询开始时取出，结束后放回；
+     * 如果同时有多个批量查询（其他线程已经取走了缓冲区），则临时创建一个新的
+     */
+    private final AtomicReference<BatchQuery> batchCache = new AtomicReference<BatchQuery>();
+
     @SuppressWarnings("unchecked")
     public SegmentTree(E[] arr, Merger<E> merger) {
         data = (E[]) new Object[arr.length];
@@ -51,6 +68,384 @@ public class SegmentTree<E> {
         return query(0, 0, data.length - 1, queryLeft, queryRight);
     }
 
+    /**
+     * 批量查询。对于第 i 个查询，将区间 [queryLefts[i], queryRights[i]] 的值存入 results[i] 中。
+     * 在查询之前会先检查所有的区间，只要有一个区间不合法，则不会进行任何查询。
+     * 
+     * 采用离线查询的方式：先将所有查询按照区间端点排序，然后只遍历一次线段树，每个节点一次性处理所有经过它的查询，
+     * 多个查询共同经过的节点只会被访问一次（具体做法见 BatchQuery）。
+     * 
+     * @param queryLefts  各个查询区间的左边界值
+     * @param queryRights 各个查询区间的右边界值
+     * @param results     存放查询结果的数组（由调用方提供，避免每次查询都创建新数组）
+     */
+    public void query(int[] queryLefts, int[] queryRights, E[] results) {
+        checkQueries(queryLefts, queryRights, results);
+        batchQuery(queryLefts, queryRights, results, false);
+    }
+
+    /**
+     * 并行批量查询，结果与 query(int[], int[], E[]) 相同。
+     * 遍历线段树时，左右子树中的查询互不影响，所以当经过某个节点的查询较多时，使用 ForkJoinPool.commonPool() 并行遍历其左右子树。
+     * 查询期间不能对线段树进行更新。
+     * 
+     * @param queryLefts  各个查询区间的左边界值
+     * @param queryRights 各个查询区间的右边界值
+     * @param results     存放查询结果的数组
+     */
+    public void parallelQuery(int[] queryLefts, int[] queryRights, E[] results) {
+        checkQueries(queryLefts, queryRights, results);
+        batchQuery(queryLefts, queryRights, results, true);
+    }
+
+    private void batchQuery(int[] queryLefts, int[] queryRights, E[] results, boolean parallel) {
+        if (0 == queryLefts.length) {
+            return;
+        }
+
+        BatchQuery batch = batchCache.getAndSet(null);
+        if (null == batch) {
+            batch = new BatchQuery();
+        }
+        try {
+            batch.run(queryLefts, queryRights, results, parallel);
+        } finally {
+            batchCache.set(batch);
+        }
+    }
+
+    /**
+     * 离线批量查询。
+     * 
+     * 查询区间 [ql, qr] 会被分解成线段树中若干个互不相交的节点，这些节点都挂在从根节点到 ql、qr 对应叶子节点的两条路径上：
+     * 挂在 ql 路径上的节点自上而下是从右往左排列的，挂在 qr 路径上的节点自上而下是从左往右排列的。
+     * 所以遍历时将两部分分别累积（前者合并到结果的左侧，后者合并到结果的右侧），最后再合并两部分即可，
+     * 结果与逐个查询完全相同（merger 不需要满足交换律）。
+     * 
+     * 某个查询需要在节点 root 处处理，当且仅当查询区间与 root 的区间部分相交（相交但没有覆盖），
+     * 此时 ql 或 qr 一定落在 root 的区间内，因此：
+     *  （1）byLeft 中的查询按照 (ql 升序, qr 降序) 排列，ql 落在任意节点区间内的查询在 byLeft 中是连续的一段；
+     *  （2）byRight 中的查询按照 (qr 升序, ql 降序) 排列，qr 落在任意节点区间内的查询在 byRight 中是连续的一段。
+     * 而完全覆盖某个节点的查询恰好位于 byLeft 中对应段的开头、byRight 中对应段的结尾，只需移动段的边界即可将其剔除。
+     * 这样每个节点只需要两段下标，不需要为每个节点复制查询集合。
+     * 
+     * 各个数组的长度为已处理过的最大查询个数，在多次批量查询之间复用（见 batchCache），每次只使用前 q 个位置。
+     * 排序时，如果查询个数 q 远小于元素个数 n，则使用 O(qlogq) 的排序，否则使用 O(q + n) 的计数排序，
+     * 因此少量查询的批量查询不会产生与 n 成正比的开销。
+     */
+    private class BatchQuery {
+        private E[] results;
+
+        /**
+         * 本次批量查询的查询个数
+         */
+        private int n;
+
+        /**
+         * 查询结果中挂在 ql 路径上的部分（左半部分），按照 byLeft 中的位置存放，遍历时基本是顺序写入
+         */
+        private E[] leftParts;
+
+        /**
+         * 查询结果中挂在 qr 路径上的部分（右半部分），按照 byRight 中的位置存放
+         */
+        private E[] rightParts;
+
+        private boolean[] hasLeft;
+        private boolean[] hasRight;
+
+        private int[] byLeft;
+        private int[] byRight;
+
+        /**
+         * rightPositions[q] 为第 q 个查询在 byRight 中的位置
+         */
+        private int[] rightPositions;
+
+        /**
+         * 按照 byLeft、byRight 的顺序存放查询区间的端点，遍历时顺序访问，避免通过查询下标随机访问 queryLefts、queryRights
+         */
+        private int[] leftOrderLefts;
+        private int[] leftOrderRights;
+        private int[] rightOrderLefts;
+        private int[] rightOrderRights;
+
+        /**
+         * 排序使用的临时数组：sortBuffer 存放第一趟排序的结果，sortKeys 存放 (排序键 << 32 | 位置)，
+         * counts 为计数排序的计数数组（长度为 n + 1，只在使用计数排序时才创建）
+         */
+        private int[] sortBuffer;
+        private long[] sortKeys;
+        private int[] counts;
+
+        public BatchQuery() {
+            ensureCapacity(16);
+        }
+
+        public void run(int[] queryLefts, int[] queryRights, E[] results, boolean parallel) {
+            this.n = queryLefts.length;
+            this.results = results;
+            ensureCapacity(n);
+            try {
+                prepare(queryLefts, queryRights);
+                traverse(parallel);
+            } finally {
+                // 释放对查询结果的引用，缓冲区中不保留任何元素
+                Arrays.fill(leftParts, 0, n, null);
+                Arrays.fill(rightParts, 0, n, null);
+                this.results = null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void ensureCapacity(int capacity) {
+            if (null != byLeft && byLeft.length >= capacity) {
+                return;
+            }
+
+            if (null != byLeft) {
+                capacity = Math.max(capacity, 2 * byLeft.length);
+            }
+            leftParts = (E[]) new Object[capacity];
+            rightParts = (E[]) new Object[capacity];
+            hasLeft = new boolean[capacity];
+            hasRight = new boolean[capacity];
+            byLeft = new int[capacity];
+            byRight = new int[capacity];
+            rightPositions = new int[capacity];
+            leftOrderLefts = new int[capacity];
+            leftOrderRights = new int[capacity];
+            rightOrderLefts = new int[capacity];
+            rightOrderRights = new int[capacity];
+            sortBuffer = new int[capacity];
+            sortKeys = new long[capacity];
+        }
+
+        private void prepare(int[] queryLefts, int[] queryRights) {
+            Arrays.fill(hasLeft, 0, n, false);
+            Arrays.fill(hasRight, 0, n, false);
+
+            sort(byLeft, queryLefts, queryRights);
+            sort(byRight, queryRights, queryLefts);
+            for (int i = 0; i < n; ++i) {
+                rightPositions[byRight[i]] = i;
+                leftOrderLefts[i] = queryLefts[byLeft[i]];
+                leftOrderRights[i] = queryRights[byLeft[i]];
+                rightOrderLefts[i] = queryLefts[byRight[i]];
+                rightOrderRights[i] = queryRights[byRight[i]];
+            }
+        }
+
+        /**
+         * 将查询按照 (primary 升序, secondary 降序) 排列，结果存入 sorted 中。
+         * 先按 secondary 降序排序，再按 primary 升序稳定排序
+         */
+        private void sort(int[] sorted, int[] primary, int[] secondary) {
+            int bound = data.length;
+            if ((long) n * (32 - Integer.numberOfLeadingZeros(n)) >= bound) {
+                // 查询个数与元素个数相当，计数排序 O(q + n)
+                if (null == counts) {
+                    counts = new int[bound + 1];
+                }
+                countingSort(null, secondary, true, sortBuffer);
+                countingSort(sortBuffer, primary, false, sorted);
+                return;
+            }
+
+            // 查询个数远小于元素个数，排序 (排序键 << 32 | 位置) 组成的 long，位置作为最低位，使排序是稳定的，O(qlogq)
+            for (int i = 0; i < n; ++i) {
+                sortKeys[i] = (long) (bound - 1 - secondary[i]) << 32 | i;
+            }
+            Arrays.sort(sortKeys, 0, n);
+            for (int i = 0; i < n; ++i) {
+                int q = (int) sortKeys[i];
+                sortBuffer[i] = q;
+                sortKeys[i] = (long) primary[q] << 32 | i;
+            }
+            Arrays.sort(sortKeys, 0, n);
+            for (int i = 0; i < n; ++i) {
+                sorted[i] = sortBuffer[(int) sortKeys[i]];
+            }
+        }
+
+        /**
+         * 按照 keys[order[i]] 对 order 的前 n 个位置进行稳定的计数排序，结果存入 sorted 中（order 为 null 时表示 0, 1, ..., n - 1）。
+         * keys 中的值都在 [0, data.length) 之内
+         */
+        private void countingSort(int[] order, int[] keys, boolean descending, int[] sorted) {
+            int bound = data.length;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; ++i) {
+                int q = null == order ? i : order[i];
+                ++counts[(descending ? bound - 1 - keys[q] : keys[q]) + 1];
+            }
+            for (int i = 0; i < bound; ++i) {
+                counts[i + 1] += counts[i];
+            }
+
+            for (int i = 0; i < n; ++i) {
+                int q = null == order ? i : order[i];
+                sorted[counts[descending ? bound - 1 - keys[q] : keys[q]]++] = q;
+            }
+        }
+
+        private void traverse(boolean parallel) {
+            int right = data.length - 1;
+
+            // 覆盖整个区间的查询，其结果即为根节点的值
+            int lf = 0;
+            while (lf < n && 0 == leftOrderLefts[lf] && right == leftOrderRights[lf]) {
+                addLeft(lf++, tree[0]);
+            }
+            int rt = n;
+            while (rt > 0 && 0 == rightOrderLefts[rt - 1] && right == rightOrderRights[rt - 1]) {
+                --rt;
+            }
+
+            if (lf < n || rt > 0) {
+                if (parallel) {
+                    ForkJoinPool.commonPool().invoke(new VisitTask(this, 0, 0, right, lf, n, 0, rt));
+                } else {
+                    visit(0, 0, right, lf, n, 0, rt, false);
+                }
+            }
+
+            // 合并左右两部分（先放入右半部分，每个查询至少有一部分）
+            for (int i = 0; i < n; ++i) {
+                if (hasRight[i]) {
+                    results[byRight[i]] = rightParts[i];
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                if (hasLeft[i]) {
+                    int q = byLeft[i];
+                    results[q] = hasRight[rightPositions[q]] ? merger.merge(leftParts[i], results[q]) : leftParts[i];
+                }
+            }
+        }
+
+        /**
+         * 处理与节点 root（对应区间 [left, right]）部分相交的查询，然后遍历其左右子树。
+         * byLeft[lf, lt) 为 ql 落在 [left, right] 内的查询，byRight[rf, rt) 为 qr 落在 [left, right] 内的查询（均已剔除覆盖 root 的查询）
+         */
+        private void visit(int root, int left, int right, int lf, int lt, int rf, int rt, boolean parallel) {
+            int mid = left + (right - left) / 2;
+            int leftChildIndex = leftChild(root);
+            int rightChildIndex = rightChild(root);
+
+            // ql 在 [left, right] 内：如果查询覆盖了左子树或右子树，则将该子树的值合并到结果的左半部分
+            int lm = lf; // byLeft[lm] 为第一个 ql 落在右子树中的查询
+            for (int i = lf; i < lt; ++i) {
+                int queryLeft = leftOrderLefts[i];
+                int queryRight = leftOrderRights[i];
+                if (queryLeft <= mid) {
+                    lm = i + 1;
+                    if (queryLeft == left && queryRight >= mid) {
+                        addLeft(i, tree[leftChildIndex]);
+                    } else if (queryRight >= right) {
+                        addLeft(i, tree[rightChildIndex]);
+                    }
+                } else if (queryLeft == mid + 1 && queryRight >= right) {
+                    addLeft(i, tree[rightChildIndex]);
+                }
+            }
+
+            // qr 在 [left, right] 内且 ql 在 left 左侧：如果查询覆盖了左子树，则将左子树的值合并到结果的右半部分（不可能覆盖右子树）
+            int rm = rf; // byRight[rm] 为第一个 qr 落在右子树中的查询
+            for (int i = rf; i < rt; ++i) {
+                int queryRight = rightOrderRights[i];
+                if (queryRight <= mid) {
+                    rm = i + 1;
+                }
+                if (rightOrderLefts[i] < left && queryRight >= mid) {
+                    addRight(i, tree[leftChildIndex]);
+                }
+            }
+
+            // 剔除覆盖左右子树的查询，得到左右子树中需要处理的查询
+            int leftLf = lf;
+            while (leftLf < lm && leftOrderLefts[leftLf] == left && leftOrderRights[leftLf] >= mid) {
+                ++leftLf;
+            }
+            int leftRt = rm;
+            while (leftRt > rf && rightOrderRights[leftRt - 1] == mid && rightOrderLefts[leftRt - 1] <= left) {
+                --leftRt;
+            }
+            int rightLf = lm;
+            while (rightLf < lt && leftOrderLefts[rightLf] == mid + 1 && leftOrderRights[rightLf] >= right) {
+                ++rightLf;
+            }
+            int rightRt = rt;
+            while (rightRt > rm && rightOrderRights[rightRt - 1] == right
+                    && rightOrderLefts[rightRt - 1] <= mid + 1) {
+                --rightRt;
+            }
+
+            boolean visitLeft = leftLf < lm || rf < leftRt;
+            boolean visitRight = rightLf < lt || rm < rightRt;
+            if (parallel && visitLeft && visitRight && (lt - lf) + (rt - rf) > PARALLEL_THRESHOLD) {
+                ForkJoinTask.invokeAll(new VisitTask(this, leftChildIndex, left, mid, leftLf, lm, rf, leftRt),
+                        new VisitTask(this, rightChildIndex, mid + 1, right, rightLf, lt, rm, rightRt));
+                return;
+            }
+
+            if (visitLeft) {
+                visit(leftChildIndex, left, mid, leftLf, lm, rf, leftRt, parallel);
+            }
+            if (visitRight) {
+                visit(rightChildIndex, mid + 1, right, rightLf, lt, rm, rightRt, parallel);
+            }
+        }
+
+        /**
+         * 将 e 合并到 byLeft[i] 对应查询结果左半部分的左侧
+         */
+        private void addLeft(int i, E e) {
+            leftParts[i] = hasLeft[i] ? merger.merge(e, leftParts[i]) : e;
+            hasLeft[i] = true;
+        }
+
+        /**
+         * 将 e 合并到 byRight[i] 对应查询结果右半部分的右侧
+         */
+        private void addRight(int i, E e) {
+            rightParts[i] = hasRight[i] ? merger.merge(rightParts[i], e) : e;
+            hasRight[i] = true;
+        }
+    }
+
+    /**
+     * 并行遍历线段树的子任务。（左右子树只会写入 byLeft、byRight 中互不相交的两段位置，所以可以同时遍历）
+     */
+    private class VisitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private BatchQuery batch;
+        private int root;
+        private int left;
+        private int right;
+        private int lf;
+        private int lt;
+        private int rf;
+        private int rt;
+
+        public VisitTask(BatchQuery batch, int root, int left, int right, int lf, int lt, int rf, int rt) {
+            this.batch = batch;
+            this.root = root;
+            this.left = left;
+            this.right = right;
+            this.lf = lf;
+            this.lt = lt;
+            this.rf = rf;
+            this.rt = rt;
+        }
+
+        @Override
+        protected void compute() {
+            batch.visit(root, left, right, lf, lt, rf, rt, true);
+        }
+    }
+
     /**
      * 更新 index 指定索引处的元素
      * @param index 待更新元素的索引
@@ -85,6 +480,21 @@ public class SegmentTree<E> {
         return data[index];
     }
 
+    /**
+     * 检查批量查询的参数是否合法
+     */
+    private void checkQueries(int[] queryLefts, int[] queryRights, E[] results) {
+        if (queryLefts.length != queryRights.length || results.length < queryLefts.length) {
+            throw new IllegalArgumentException("Illegal query arrays!");
+        }
+
+        for (int i = 0; i < queryLefts.length; ++i) {
+            if (queryLefts[i] < 0 || queryRights[i] >= data.length || queryLefts[i] > queryRights[i]) {
+                throw new IllegalArgumentException("Illegal query range!");
+            }
+        }
+    }
+
     /**
      * 以 root 为根节点，构建一棵区间为 [left, right] 的线段树
      * 
@@ -0,0 +1,32 @@
+package segmenttree;
+
+/**
+ * 用于区间更新（懒惰传播），描述“区间加”、“区间赋值”操作对区间值的影响
+ */
+public interface Updater<E> {
+
+    /**
+     * 区间内每个元素都加上 delta 后，计算新的区间值
+     * @param value  区间原来的值
+     * @param delta  每个元素增加的值
+     * @param length 区间的长度（元素个数）
+     * @return 新的区间值
+     */
+    public E add(E value, E delta, int length);
+
+    /**
+     * 区间内每个元素都赋值为 e 后，计算新的区间值
+     * @param e      元素的新值
+     * @param length 区间的长度（元素个数）
+     * @return 新的区间值
+     */
+    public E assign(E e, int length);
+
+    /**
+     * 合并两个先后作用于同一区间的增量
+     * @param delta1 先作用的增量
+     * @param delta2 后作用的增量
+     * @return 合并后的增量
+     */
+    public E combine(E delta1, E delta2);
+}
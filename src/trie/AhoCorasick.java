@@ -0,0 +1,254 @@
+package trie;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick 自动机，由 Trie.toAhoCorasick() 生成，用于在文本中一次性查找 Trie 中所有单词的所有出现位置。
+ *
+ * 若对文本的每个子串都调用 Trie.contains，时间复杂度为 O(n^2)。Aho-Corasick 自动机在 Trie 的基础上增加了：
+ *  （1）失败链接：状态 s 的失败链接指向 s 所代表字符串的最长真后缀所对应的状态。匹配失败时沿着失败链接跳转，而不必回退文本
+ *  （2）输出链接：指向沿着失败链接能够到达的最近的单词状态，用于报告以当前位置结尾的所有单词
+ * 状态数 * 字母表大小不超过 DENSE_LIMIT 时，构建时将失败链接展开成完整的状态转移表，因此扫描文本时每个字符只需要一次查表，
+ * 总时间复杂度为 O(n + 匹配次数)。否则完整的状态转移表过大，只保存 Trie 中的转移（稀疏存储）及失败链接，匹配失败时沿失败链接跳转，
+ * 每次跳转都会使当前状态的深度减小，所以总时间复杂度依然为 O(n * log(字母表大小) + 匹配次数)。
+ */
+public class AhoCorasick {
+
+    /**
+     * 匹配结果的处理器
+     */
+    public interface MatchHandler {
+
+        /**
+         * 在文本中找到一个单词
+         * @param end  单词在文本中的结束位置（不包含），起始位置为 end - word.length()
+         * @param word 找到的单词
+         */
+        public void onMatch(long end, String word);
+    }
+
+    /**
+     * 状态数 * 字母表大小不超过该值时，使用完整的状态转移表；否则使用稀疏的状态转移，避免状态转移表占用过多内存
+     */
+    static final int DENSE_LIMIT = 1 << 22;
+
+    /**
+     * 字符编码表，charCode[c] 为字符 c 的编码（从 1 开始）。为 0 表示所有单词中都不含有该字符
+     */
+    private int[] charCode;
+
+    /**
+     * 编码的个数（字母表大小）
+     */
+    private int alphabetSize;
+
+    /**
+     * 完整的状态转移表，状态 s 经过编码为 code 的字符后转移到 delta[s * alphabetSize + code - 1]。使用稀疏的状态转移时为 null
+     */
+    private int[] delta;
+
+    /**
+     * 稀疏的状态转移（只保存 Trie 中的转移）：状态 s 的转移为第 first[s] 到 first[s + 1] - 1 条边，
+     * 第 e 条边的字符编码为 codes[e]，到达状态 e + 1（状态按层序编号，每个状态的子状态是连续的）。同一状态的边按编码升序排列
+     */
+    private int[] first;
+    private int[] codes;
+
+    /**
+     * 失败链接，只在使用稀疏的状态转移时保存
+     */
+    private int[] fail;
+
+    /**
+     * 根状态的完整转移，只在使用稀疏的状态转移时保存。大部分失败最终都会回到根状态，因此单独为根状态保存完整的转移
+     */
+    private int[] rootDelta;
+
+    /**
+     * words[s] 为状态 s 所代表的单词。如果状态 s 不构成单词，则为 null
+     */
+    private String[] words;
+
+    /**
+     * 输出链接，output[s] 为沿着失败链接能够到达的最近的单词状态（不包括 s 本身）。不存在时为 -1
+     */
+    private int[] output;
+
+    /**
+     * @param charCode     字符编码表
+     * @param alphabetSize 编码的个数
+     * @param first        Trie 中的状态转移（格式同 first 字段），状态必须按照层序编号，根状态为 0
+     * @param codes        Trie 中各条边的字符编码（格式同 codes 字段）
+     * @param words        各个状态所代表的单词
+     */
+    AhoCorasick(int[] charCode, int alphabetSize, int[] first, int[] codes, String[] words) {
+        this.charCode = charCode;
+        this.alphabetSize = alphabetSize;
+        this.words = words;
+
+        int stateCount = words.length;
+        output = new int[stateCount];
+        output[0] = -1;
+
+        if ((long) stateCount * alphabetSize <= DENSE_LIMIT) {
+            buildDelta(first, codes);
+        } else {
+            this.first = first;
+            this.codes = codes;
+            buildFail();
+        }
+    }
+
+    /**
+     * 构建完整的状态转移表：按层序计算失败链接，并将不存在的转移替换为沿失败链接的转移
+     */
+    private void buildDelta(int[] first, int[] codes) {
+        int stateCount = words.length;
+        delta = new int[stateCount * alphabetSize];
+        Arrays.fill(delta, -1);
+        for (int s = 0; s < stateCount; ++s) {
+            for (int e = first[s]; e < first[s + 1]; ++e) {
+                delta[s * alphabetSize + codes[e] - 1] = e + 1;
+            }
+        }
+
+        // 由于状态按层序编号，处理状态 s 时，fail[s] 已经处理完毕
+        int[] fail = new int[stateCount];
+        for (int s = 0; s < stateCount; ++s) {
+            for (int code = 0; code < alphabetSize; ++code) {
+                int index = s * alphabetSize + code;
+                int fallback = 0 == s ? 0 : delta[fail[s] * alphabetSize + code];
+                int t = delta[index];
+                if (-1 == t) {
+                    delta[index] = fallback;
+                } else {
+                    fail[t] = fallback;
+                    output[t] = null != words[fallback] ? fallback : output[fallback];
+                }
+            }
+        }
+    }
+
+    /**
+     * 使用稀疏的状态转移时，按层序计算失败链接及根状态的完整转移
+     */
+    private void buildFail() {
+        int stateCount = words.length;
+        rootDelta = new int[alphabetSize];
+        for (int e = first[0]; e < first[1]; ++e) {
+            rootDelta[codes[e] - 1] = e + 1;
+        }
+
+        fail = new int[stateCount];
+        for (int s = 0; s < stateCount; ++s) {
+            for (int e = first[s]; e < first[s + 1]; ++e) {
+                int t = e + 1;
+                int fallback = 0 == s ? 0 : next(fail[s], codes[e]);
+                fail[t] = fallback;
+                output[t] = null != words[fallback] ? fallback : output[fallback];
+            }
+        }
+    }
+
+    /**
+     * 扫描文本，报告所有单词的所有出现位置（包括相互重叠的单词）
+     * @param text    文本
+     * @param handler 匹配结果的处理器
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); ++i) {
+            state = next(state, text.charAt(i));
+            report(state, i + 1, handler);
+        }
+    }
+
+    /**
+     * 流式扫描 reader 中的文本，报告所有单词的所有出现位置。不会将整个文本读入内存
+     * @param reader  文本
+     * @param handler 匹配结果的处理器
+     * @throws IOException 读取失败
+     */
+    public void scan(Reader reader, MatchHandler handler) throws IOException {
+        char[] buffer = new char[8192];
+        int state = 0;
+        long position = 0;
+        int count;
+        while (-1 != (count = reader.read(buffer))) {
+            for (int i = 0; i < count; ++i) {
+                state = next(state, buffer[i]);
+                report(state, ++position, handler);
+            }
+        }
+    }
+
+    /**
+     * 返回文本中出现的所有单词（按出现的结束位置排序，可能有重复）
+     * @param text 文本
+     * @return 所有出现的单词
+     */
+    public List<String> findAll(CharSequence text) {
+        final List<String> result = new ArrayList<String>();
+        scan(text, (end, word) -> result.add(word));
+        return result;
+    }
+
+    private int next(int state, char c) {
+        int code = c < charCode.length ? charCode[c] : 0;
+        if (0 == code) {
+            return 0; // 所有单词都不含有该字符，直接回到根状态
+        }
+        if (null != delta) {
+            return delta[state * alphabetSize + code - 1];
+        }
+        return next(state, code);
+    }
+
+    /**
+     * 使用稀疏的状态转移时，状态 state 经过编码为 code 的字符后到达的状态：没有对应的转移时，沿着失败链接跳转
+     */
+    private int next(int state, int code) {
+        while (0 != state) {
+            int t = find(state, code);
+            if (-1 != t) {
+                return t;
+            }
+            state = fail[state];
+        }
+        return rootDelta[code - 1];
+    }
+
+    /**
+     * 在状态 state 的边中二分查找编码为 code 的边，返回其到达的状态。不存在时返回 -1
+     */
+    private int find(int state, int code) {
+        int left = first[state];
+        int right = first[state + 1] - 1;
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            if (codes[mid] == code) {
+                return mid + 1;
+            } else if (codes[mid] < code) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 报告以 end 结尾、状态 state 对应的所有单词
+     */
+    private void report(int state, long end, MatchHandler handler) {
+        int s = null != words[state] ? state : output[state];
+        while (-1 != s) {
+            handler.onMatch(end, words[s]);
+            s = output[s];
+        }
+    }
+}
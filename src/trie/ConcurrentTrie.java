@@ -0,0 +1,228 @@
+package trie;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 线程安全的字典树，读操作无锁，写操作不会阻塞读操作。
+ *
+ * 所有节点都是不可变的，子节点存放在按字符有序的数组中。添加单词时，不修改已有的节点，而是复制从根节点到单词末尾这条路径上的节点
+ * （写时复制，Copy-On-Write），然后通过 CAS 将新的根节点发布出去；若 CAS 失败（其它线程先完成了添加），则基于最新的根节点重试。
+ *  （1）读操作：读取当前的根节点后，沿着不可变的节点向下查找，不需要加锁，也不会看到修改了一半的状态
+ *  （2）写操作：多个写线程之间通过 CAS 竞争，不使用锁
+ *  （3）快照：根节点对应的整棵树是不可变的，因此 snapshot 只需要保存当前的根节点，时间复杂度为 O(1)
+ */
+public class ConcurrentTrie {
+
+    /**
+     * 不可变的节点类
+     */
+    private static class Node {
+        /**
+         * 标记当前节点是否是一个单词的结尾字符
+         */
+        final boolean isWord;
+        /**
+         * 子节点所代表的字符（升序排列）
+         */
+        final char[] chars;
+        /**
+         * 子节点，与 chars 一一对应
+         */
+        final Node[] children;
+
+        public Node(boolean isWord, char[] chars, Node[] children) {
+            this.isWord = isWord;
+            this.chars = chars;
+            this.children = children;
+        }
+
+        /**
+         * 获取字符 c 对应的子节点的索引
+         * @return 子节点的索引。如果不存在，则返回 -(插入位置 + 1)
+         */
+        int indexOf(char c) {
+            int left = 0;
+            int right = chars.length - 1;
+            while (left <= right) {
+                int mid = left + (right - left) / 2;
+                if (chars[mid] < c) {
+                    left = mid + 1;
+                } else if (chars[mid] > c) {
+                    right = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(left + 1);
+        }
+
+        /**
+         * 返回一个新节点，其 index 处的子节点被替换为 child
+         */
+        Node withChild(int index, Node child) {
+            Node[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new Node(isWord, chars, newChildren);
+        }
+
+        /**
+         * 返回一个新节点，在 index 处插入字符 c 对应的子节点 child
+         */
+        Node insertChild(int index, char c, Node child) {
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChars[index] = c;
+            newChildren[index] = child;
+            System.arraycopy(chars, index, newChars, index + 1, chars.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            return new Node(isWord, newChars, newChildren);
+        }
+    }
+
+    /**
+     * 某一时刻的整棵树：根节点及单词个数
+     */
+    private static class Version {
+        final Node root;
+        final int size;
+
+        public Version(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+    }
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private AtomicReference<Version> current;
+
+    public ConcurrentTrie() {
+        current = new AtomicReference<Version>(new Version(new Node(false, NO_CHARS, NO_CHILDREN), 0));
+    }
+
+    private ConcurrentTrie(Version version) {
+        current = new AtomicReference<Version>(version);
+    }
+
+    /**
+     * 向字典树中添加一个单词
+     * @param word 待添加的单词
+     */
+    public void add(String word) {
+        while (true) {
+            Version version = current.get();
+            Node newRoot = add(version.root, word, 0);
+            if (null == newRoot) {
+                return; // 单词已经存在，无需修改
+            }
+
+            if (current.compareAndSet(version, new Version(newRoot, version.size + 1))) {
+                return;
+            }
+            // 其它线程修改了树，基于最新的版本重试
+        }
+    }
+
+    /**
+     * 判断字典树中是否含有单词 word
+     * @param word 待判断的单词
+     * @return 如果含有单词 word，则返回 true；否则，返回 false
+     */
+    public boolean contains(String word) {
+        Node node = find(current.get().root, word);
+        return null != node && node.isWord;
+    }
+
+    /**
+     * 判断 prefix 是否是字典树中的前缀
+     * @param prefix 待判断的前缀
+     * @return 如果 prefix 是前缀，则返回 true；否则，返回 false
+     */
+    public boolean isPrefix(String prefix) {
+        return null != find(current.get().root, prefix);
+    }
+
+    public int size() {
+        return current.get().size;
+    }
+
+    /**
+     * 获取当前时刻的快照。快照与当前字典树互不影响：之后向当前字典树添加单词，不会反映到快照中；反之亦然。
+     * @return 快照
+     */
+    public ConcurrentTrie snapshot() {
+        return new ConcurrentTrie(current.get());
+    }
+
+    /**
+     * 按字典序返回当前时刻的所有单词（基于一致的快照，不受并发添加的影响）
+     * @return 所有单词
+     */
+    public List<String> words() {
+        List<String> words = new ArrayList<String>();
+
+        // 使用显式栈进行深度优先遍历，子节点逆序入栈，从而按字典序出栈
+        LinkedList<Node> nodes = new LinkedList<Node>();
+        LinkedList<String> prefixes = new LinkedList<String>();
+        nodes.push(current.get().root);
+        prefixes.push("");
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            String prefix = prefixes.pop();
+            if (node.isWord) {
+                words.add(prefix);
+            }
+            for (int i = node.children.length - 1; i >= 0; --i) {
+                nodes.push(node.children[i]);
+                prefixes.push(prefix + node.chars[i]);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 在以 node 为根节点的树中，添加单词 word[index, word.length())，返回复制了路径的新根节点
+     * @return 新的根节点。如果单词已经存在，则返回 null
+     */
+    private Node add(Node node, String word, int index) {
+        if (index == word.length()) {
+            return node.isWord ? null : new Node(true, node.chars, node.children);
+        }
+
+        char c = word.charAt(index);
+        int i = node.indexOf(c);
+        if (i < 0) {
+            // 不存在对应的子节点，则将剩余的字符构造成一条新链
+            Node chain = new Node(true, NO_CHARS, NO_CHILDREN);
+            for (int j = word.length() - 1; j > index; --j) {
+                chain = new Node(false, new char[] { word.charAt(j) }, new Node[] { chain });
+            }
+            return node.insertChild(-(i + 1), c, chain);
+        }
+
+        Node child = add(node.children[i], word, index + 1);
+        return null == child ? null : node.withChild(i, child);
+    }
+
+    /**
+     * 从 root 出发，沿着 str 中的字符向下查找
+     * @return 最后到达的节点。如果中途无法继续，则返回 null
+     */
+    private Node find(Node root, String str) {
+        Node node = root;
+        for (int i = 0; i < str.length(); ++i) {
+            int index = node.indexOf(str.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+        }
+        return node;
+    }
+}
@@ -0,0 +1,124 @@
+package trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 不可变的双数组字典树（Double-Array Trie），由 Trie.freeze() 生成，适用于构建后只读的场景。
+ *
+ * 双数组字典树用两个 int 数组 base、check 表示整棵树，每个节点对应一个下标（状态）：
+ *  对于状态 s，经过字符 c 转移到的状态为 t = base[s] + code(c)，当且仅当 check[t] == s 时，该转移存在。
+ * 与 Trie 相比，不需要为每个节点创建对象及 TreeMap，查找时只需要访问连续的数组，对缓存更友好，
+ * 并且构建完成后，原来的 Trie 可以被垃圾回收。
+ *
+ * 可以通过 save 将其保存成二进制文件，之后使用 MappedTrie.open 直接通过内存映射读取，无需重新构建。
+ */
+public class FrozenTrie {
+
+    /**
+     * base[s] 为状态 s 的子节点的基准位置。base[s] == 0 表示状态 s 没有子节点
+     */
+    private int[] base;
+
+    /**
+     * check[t] 为状态 t 的父状态。check[t] == -1 表示位置 t 未被使用
+     */
+    private int[] check;
+
+    /**
+     * 标记状态是否构成一个单词
+     */
+    private boolean[] isWord;
+
+    /**
+     * 字符编码表，charCode[c] 为字符 c 的编码（从 1 开始）。为 0 表示字典中不含有该字符
+     */
+    private int[] charCode;
+
+    /**
+     * 存储的单词个数
+     */
+    private int size;
+
+    FrozenTrie(int[] base, int[] check, boolean[] isWord, int[] charCode, int size) {
+        this.base = base;
+        this.check = check;
+        this.isWord = isWord;
+        this.charCode = charCode;
+        this.size = size;
+    }
+
+    /**
+     * 判断是否含有单词 word
+     * @param word 待判断的单词
+     * @return 如果含有单词 word，则返回 true；否则，返回 false
+     */
+    public boolean contains(String word) {
+        int state = walk(word);
+        return -1 != state && isWord[state];
+    }
+
+    /**
+     * 判断 prefix 是否是前缀
+     * @param prefix 待判断的前缀
+     * @return 如果 prefix 是前缀，则返回 true；否则，返回 false
+     */
+    public boolean isPrefix(String prefix) {
+        return -1 != walk(prefix);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 将双数组字典树保存到文件中，文件格式见 MappedTrie
+     * @param file 目标文件
+     * @throws IOException 写文件失败
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MappedTrie.MAGIC);
+            out.writeInt(MappedTrie.VERSION);
+            out.writeInt(size);
+            out.writeInt(charCode.length);
+            out.writeInt(base.length);
+            for (int code : charCode) {
+                out.writeInt(code);
+            }
+            for (int b : base) {
+                out.writeInt(b);
+            }
+            for (int c : check) {
+                out.writeInt(c);
+            }
+            for (boolean word : isWord) {
+                out.writeByte(word ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * 从根状态出发，依次根据 str 中的字符进行转移
+     * @return 转移结束后所处的状态。如果某个转移不存在，则返回 -1
+     */
+    private int walk(String str) {
+        int state = 0; // 根状态
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (c >= charCode.length || 0 == charCode[c] || 0 == base[state]) {
+                return -1;
+            }
+
+            int next = base[state] + charCode[c];
+            if (next >= check.length || check[next] != state) {
+                return -1;
+            }
+            state = next;
+        }
+        return state;
+    }
+}
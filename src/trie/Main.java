@@ -4,6 +4,7 @@ public class Main {
 
     public static void main(String[] args) {
         Trie trie = new Trie();
+        //        RadixTrie trie = new RadixTrie();
         //        trie.add("computer");
         //        trie.add("compare");
         //        trie.add("class");
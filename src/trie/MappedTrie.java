@@ -0,0 +1,133 @@
+package trie;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 基于内存映射文件的只读字典树，直接在 FrozenTrie.save 生成的文件上进行查询，无需反序列化。
+ *
+ * 打开文件时只需建立内存映射，耗时与文件大小无关；查询时由操作系统按需将用到的页面调入内存。
+ * 多个 JVM 打开同一个文件时，共享操作系统的页面缓存。
+ *
+ * 文件格式（所有整数均为大端序的 int）：
+ *  magic | version | size | charCodeLength | arrayLength | charCode[charCodeLength] | base[arrayLength] | check[arrayLength] | isWord[arrayLength]（每个占 1 个字节）
+ */
+public class MappedTrie {
+
+    /**
+     * 文件头的魔数，即 “TRIE”
+     */
+    static final int MAGIC = 0x54524945;
+
+    /**
+     * 文件格式的版本号
+     */
+    static final int VERSION = 1;
+
+    /**
+     * 文件头的字节数
+     */
+    private static final int HEADER_BYTES = 5 * 4;
+
+    private IntBuffer charCode;
+    private IntBuffer base;
+    private IntBuffer check;
+    private ByteBuffer isWord;
+
+    private int charCodeLength;
+    private int arrayLength;
+    private int size;
+
+    private MappedTrie(MappedByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || MAGIC != buffer.getInt(0) || VERSION != buffer.getInt(4)) {
+            throw new IllegalArgumentException("Illegal trie file!");
+        }
+
+        size = buffer.getInt(8);
+        charCodeLength = buffer.getInt(12);
+        arrayLength = buffer.getInt(16);
+        if ((long) HEADER_BYTES + 4L * charCodeLength + 9L * arrayLength != buffer.capacity()) {
+            throw new IllegalArgumentException("Illegal trie file!");
+        }
+
+        // 为文件中的各个数组分别创建视图，之后的查询都直接读取映射的内存
+        charCode = slice(buffer, HEADER_BYTES, 4 * charCodeLength).asIntBuffer();
+        base = slice(buffer, HEADER_BYTES + 4 * charCodeLength, 4 * arrayLength).asIntBuffer();
+        check = slice(buffer, HEADER_BYTES + 4 * charCodeLength + 4 * arrayLength, 4 * arrayLength).asIntBuffer();
+        isWord = slice(buffer, HEADER_BYTES + 4 * charCodeLength + 8 * arrayLength, arrayLength);
+    }
+
+    /**
+     * 以只读的方式打开 FrozenTrie.save 生成的文件（文件大小不能超过 2GB）
+     * @param file 字典树文件
+     * @return 基于该文件的字典树
+     * @throws IOException 读文件失败
+     */
+    public static MappedTrie open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            // 关闭文件后，内存映射依然有效
+            return new MappedTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 判断是否含有单词 word
+     * @param word 待判断的单词
+     * @return 如果含有单词 word，则返回 true；否则，返回 false
+     */
+    public boolean contains(String word) {
+        int state = walk(word);
+        return -1 != state && 0 != isWord.get(state);
+    }
+
+    /**
+     * 判断 prefix 是否是前缀
+     * @param prefix 待判断的前缀
+     * @return 如果 prefix 是前缀，则返回 true；否则，返回 false
+     */
+    public boolean isPrefix(String prefix) {
+        return -1 != walk(prefix);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 从根状态出发，依次根据 str 中的字符进行转移（与 FrozenTrie 中的实现一致）
+     * @return 转移结束后所处的状态。如果某个转移不存在，则返回 -1
+     */
+    private int walk(String str) {
+        int state = 0;
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (c >= charCodeLength) {
+                return -1;
+            }
+            int code = charCode.get(c);
+            int b = base.get(state);
+            if (0 == code || 0 == b) {
+                return -1;
+            }
+
+            int next = b + code;
+            if (next >= arrayLength || check.get(next) != state) {
+                return -1;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(from);
+        duplicate.limit(from + length);
+        return duplicate.slice();
+    }
+}
@@ -0,0 +1,288 @@
+package trie;
+
+/**
+ * 压缩字典树（Radix Trie / Patricia Trie）
+ *
+ * 在 Trie 中，每个节点只代表一个字符，且每个节点都有一个 TreeMap 存储子节点。对于只有一个子节点的长链，会产生大量节点。
+ * 压缩字典树将这样的单链合并成一条边，一条边上可以有多个字符，从而大大减少节点的个数。
+ *
+ * 为了进一步节省内存：
+ *  （1）所有边上的字符都存放在同一个 char 数组 chars 中，每个节点只记录其入边在 chars 中的起始位置 start 和长度 length。
+ *      当一条边需要被拆分时，只需调整两个节点的 start、length，不需要复制字符
+ *  （2）子节点存放在按首字符有序的数组中，通过二分查找定位子节点，不需要 TreeMap 及 Character 装箱
+ */
+public class RadixTrie {
+
+    /**
+     * 压缩字典树的节点类
+     */
+    private class Node {
+        /**
+         * 入边（父节点指向当前节点的边）上的字符在 chars 中的起始位置
+         */
+        int start;
+        /**
+         * 入边上的字符个数
+         */
+        int length;
+        /**
+         * 标记从根节点到当前节点的路径是否构成一个单词
+         */
+        boolean isWord;
+        /**
+         * 子节点，按照入边的首字符升序排列。没有子节点时为 null
+         */
+        Node[] children;
+
+        public Node(int start, int length, boolean isWord) {
+            this.start = start;
+            this.length = length;
+            this.isWord = isWord;
+            children = null;
+        }
+
+        /**
+         * 获取入边首字符为 c 的子节点
+         * @return 子节点在 children 中的索引。如果不存在，则返回 -(插入位置 + 1)
+         */
+        int indexOf(char c) {
+            if (null == children) {
+                return -1;
+            }
+
+            int left = 0;
+            int right = children.length - 1;
+            while (left <= right) {
+                int mid = left + (right - left) / 2;
+                char midChar = chars[children[mid].start];
+                if (midChar < c) {
+                    left = mid + 1;
+                } else if (midChar > c) {
+                    right = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(left + 1);
+        }
+
+        /**
+         * 在 children 的 index 处插入子节点 child
+         */
+        void insert(int index, Node child) {
+            if (null == children) {
+                children = new Node[] { child };
+                return;
+            }
+
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            children = newChildren;
+        }
+    }
+
+    /**
+     * 所有边上的字符
+     */
+    private char[] chars;
+
+    /**
+     * chars 中已使用的字符个数
+     */
+    private int charCount;
+
+    /**
+     * 根节点（入边为空）
+     */
+    private Node root;
+
+    /**
+     * 存储的单词个数
+     */
+    private int size;
+
+    public RadixTrie() {
+        chars = new char[16];
+        charCount = 0;
+        root = new Node(0, 0, false);
+        size = 0;
+    }
+
+    /**
+     * 向压缩字典树中添加一个单词
+     * @param word 待添加的单词
+     */
+    public void add(String word) {
+        Node current = root;
+        int i = 0; // word 中正在处理的字符的索引
+        while (i < word.length()) {
+            int index = current.indexOf(word.charAt(i));
+            if (index < 0) {
+                // 不存在以当前字符开头的边，则将 word 剩余的字符作为一条新边，添加一个叶子节点
+                Node leaf = new Node(charCount, word.length() - i, true);
+                appendChars(word, i);
+                current.insert(-(index + 1), leaf);
+                ++size;
+                return;
+            }
+
+            Node child = current.children[index];
+            int matched = commonPrefixLength(child, word, i);
+            if (matched < child.length) {
+                // word 在边的中间与其分叉（或者结束），则将该边拆分成两段：[0, matched) 与 [matched, length)
+                Node middle = new Node(child.start, matched, false);
+                child.start += matched;
+                child.length -= matched;
+                middle.children = new Node[] { child };
+                current.children[index] = middle; // 首字符没变，因此在 children 中的位置不变
+                child = middle;
+            }
+
+            current = child;
+            i += matched;
+        }
+
+        if (!current.isWord) {
+            current.isWord = true;
+            ++size;
+        }
+    }
+
+    /**
+     * 判断压缩字典树中是否含有单词 word
+     * @param word 待判断的单词
+     * @return 如果含有单词 word，则返回 true；否则，返回 false
+     */
+    public boolean contains(String word) {
+        Node current = root;
+        int i = 0;
+        while (i < word.length()) {
+            int index = current.indexOf(word.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+
+            Node child = current.children[index];
+            if (commonPrefixLength(child, word, i) < child.length) {
+                return false; // word 在边的中间结束或者分叉，不可能构成单词
+            }
+            current = child;
+            i += child.length;
+        }
+
+        return current.isWord;
+    }
+
+    /**
+     * 判断 prefix 是否是压缩字典树中的前缀
+     * @param prefix 待判断的前缀
+     * @return 如果 prefix 是前缀，则返回 true；否则，返回 false
+     */
+    public boolean isPrefix(String prefix) {
+        Node current = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = current.indexOf(prefix.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+
+            Node child = current.children[index];
+            int matched = commonPrefixLength(child, prefix, i);
+            if (matched < child.length) {
+                return i + matched == prefix.length(); // prefix 恰好在边的中间结束，也是前缀
+            }
+            current = child;
+            i += matched;
+        }
+
+        return true;
+    }
+
+    /**
+     * 在压缩字典树中匹配字符串 word，如果能匹配到，则返回 true；否则，返回 false。
+     * @param word 待匹配的字符串，其可能包含 “.”， “.” 表示可以匹配任意字母
+     * @return 如果能匹配到 word，则返回 true；否则，返回 false。
+     */
+    public boolean match(String word) {
+        return match(root, word, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 在以 node 为根节点的子树中匹配 word[index, word.length())
+     */
+    private boolean match(Node node, String word, int index) {
+        if (index == word.length()) {
+            return node.isWord;
+        }
+
+        if (null == node.children) {
+            return false;
+        }
+
+        char c = word.charAt(index);
+        if ('.' != c) {
+            int childIndex = node.indexOf(c);
+            return childIndex >= 0 && matchEdge(node.children[childIndex], word, index);
+        }
+
+        // 当前字符是 “.”，则所有子节点都需要进行匹配
+        for (Node child : node.children) {
+            if (matchEdge(child, word, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 匹配 child 的入边，匹配成功后继续在 child 的子树中匹配
+     */
+    private boolean matchEdge(Node child, String word, int index) {
+        if (word.length() - index < child.length) {
+            return false;
+        }
+
+        for (int j = 0; j < child.length; ++j) {
+            char c = word.charAt(index + j);
+            if ('.' != c && chars[child.start + j] != c) {
+                return false;
+            }
+        }
+
+        return match(child, word, index + child.length);
+    }
+
+    /**
+     * 计算 node 的入边与 word[from, word.length()) 的公共前缀长度
+     */
+    private int commonPrefixLength(Node node, String word, int from) {
+        int max = Math.min(node.length, word.length() - from);
+        int matched = 0;
+        while (matched < max && chars[node.start + matched] == word.charAt(from + matched)) {
+            ++matched;
+        }
+        return matched;
+    }
+
+    /**
+     * 将 word[from, word.length()) 追加到 chars 中
+     */
+    private void appendChars(String word, int from) {
+        int count = word.length() - from;
+        if (charCount + count > chars.length) {
+            char[] newChars = new char[Math.max(chars.length * 2, charCount + count)];
+            System.arraycopy(chars, 0, newChars, 0, charCount);
+            chars = newChars;
+        }
+
+        word.getChars(from, word.length(), chars, charCount);
+        charCount += count;
+    }
+}
@@ -1,15 +1,52 @@
 package trie;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.TreeMap;
 import java.util.Map.Entry;
 
 /**
  * 字典树（也称前缀树），是一种树形数据结构，可用于检索字符串数据中的 Key。其有非常多的应用，如自动补全、拼写检查。
  * 
+ * 自动补全：通过 add(word, score) 添加带分数的单词后，可以使用 topK(prefix, k) 获取以 prefix 为前缀、分数最高的 k 个单词。
+ * 每个节点都缓存了其子树中分数最高的 topKCacheSize 个单词，因此查询时只需找到前缀对应的节点，与子树的大小无关。
  */
 public class Trie {
 
+    /**
+     * 默认每个节点缓存的补全单词个数
+     */
+    private static final int DEFAULT_TOP_K_CACHE_SIZE = 10;
+
+    /**
+     * freeze 时查找空闲位置的窗口大小（参考 darts-clone：只在最后 16 个含有 256 个位置的块中查找）
+     */
+    private static final int SEARCH_WINDOW = 16 * 256;
+
+    /**
+     * 补全单词的排列顺序：按分数降序排列，分数相同时，按字典序排列
+     */
+    private static final Comparator<Completion> COMPLETION_ORDER = (a, b) -> a.score != b.score
+            ? Integer.compare(b.score, a.score)
+            : a.word.compareTo(b.word);
+
+    /**
+     * 带分数的单词
+     */
+    private static class Completion {
+        String word;
+        int score;
+
+        public Completion(String word, int score) {
+            this.word = word;
+            this.score = score;
+        }
+    }
+
     /**
      * Trie 的节点类
      */
@@ -22,6 +59,19 @@ public class Trie {
          * 下一层的多叉子节点，Key：各个子节点所代表的字符，Value：子节点的位置
          */
         TreeMap<Character, Node> next;
+        /**
+         * 当前节点对应的带分数的单词，只有通过 add(word, score) 添加的单词才有，否则为 null
+         */
+        Completion completion;
+        /**
+         * 以当前节点为根的子树中，分数最高的若干个单词（按分数降序排列）。子树中没有带分数的单词时为 null
+         */
+        List<Completion> top;
+        /**
+         * 以当前节点为根的子树中，最短、最长单词的长度（从当前节点开始计算）。用于匹配时根据剩余长度进行剪枝
+         */
+        int minDepth = Integer.MAX_VALUE;
+        int maxDepth = -1;
 
         public Node() {
             this(false);
@@ -43,9 +93,102 @@ public class Trie {
      */
     private int size;
 
+    /**
+     * 每个节点缓存的补全单词个数，即 topK 中 k 的最大值
+     */
+    private int topKCacheSize;
+
     public Trie() {
+        this(DEFAULT_TOP_K_CACHE_SIZE);
+    }
+
+    /**
+     * @param topKCacheSize 每个节点缓存的补全单词个数，即 topK 中 k 的最大值
+     */
+    public Trie(int topKCacheSize) {
+        if (topKCacheSize <= 0) {
+            throw new IllegalArgumentException("Illegal cache size!");
+        }
+
         root = new Node();
         size = 0;
+        this.topKCacheSize = topKCacheSize;
+    }
+
+    /**
+     * 向 Trie 中添加一个带分数的单词，用于自动补全。如果单词已经存在，则更新其分数
+     * @param word  待添加的单词
+     * @param score 单词的分数，分数越高，补全时越靠前
+     */
+    public void add(String word, int score) {
+        // 记录从根节点到单词末尾的路径，添加完成后沿着路径自底向上更新缓存
+        Node[] path = new Node[word.length() + 1];
+        Node current = root;
+        path[0] = root;
+        for (int i = 0; i < word.length(); ++i) {
+            char c = word.charAt(i);
+            Node child = current.next.get(c);
+            if (null == child) {
+                child = new Node();
+                current.next.put(c, child);
+            }
+            current = child;
+            path[i + 1] = current;
+        }
+
+        for (int i = 0; i <= word.length(); ++i) {
+            updateDepth(path[i], word.length() - i);
+        }
+
+        if (!current.isWord) {
+            current.isWord = true;
+            ++size;
+        }
+        Completion completion = current.completion;
+        boolean decreased = false;
+        if (null == completion) {
+            completion = new Completion(word, score);
+            current.completion = completion;
+        } else if (completion.score == score) { // 分数没有变化，缓存无需更新
+            return;
+        } else {
+            decreased = score < completion.score;
+            completion.score = score;
+        }
+
+        // 自底向上将该单词合并到路径上各个节点的缓存中。如果某个节点的缓存不包含该单词，则其祖先节点的缓存也不会包含，无需继续向上更新
+        for (int i = word.length(); i >= 0; --i) {
+            if (!updateTop(path[i], completion, decreased)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取以 prefix 为前缀、分数最高的 k 个单词（只包含通过 add(word, score) 添加的单词）
+     * @param prefix 前缀
+     * @param k      单词个数，不能超过 topKCacheSize
+     * @return 按分数降序排列的单词。分数相同时，按字典序排列
+     */
+    public List<String> topK(String prefix, int k) {
+        if (k < 0 || k > topKCacheSize) {
+            throw new IllegalArgumentException("Illegal k!");
+        }
+
+        Node current = root;
+        for (int i = 0; i < prefix.length() && null != current; ++i) {
+            current = current.next.get(prefix.charAt(i));
+        }
+
+        List<String> result = new ArrayList<String>();
+        if (null == current || null == current.top) {
+            return result;
+        }
+
+        for (int i = 0; i < k && i < current.top.size(); ++i) {
+            result.add(current.top.get(i).word);
+        }
+        return result;
     }
 
     /**
@@ -56,6 +199,8 @@ public class Trie {
         // 遍历 word 中的字符，从根节点出发，根据 word 中的字符选择子节点方向，然后向下继续寻找
         Node current = root; // Trie 中当前所处的节点位置
         for (int i = 0; i < word.length(); ++i) {
+            updateDepth(current, word.length() - i);
+
             char c = word.charAt(i);
             if (current.next.containsKey(c)) {
                 current = current.next.get(c);
@@ -67,6 +212,7 @@ public class Trie {
             }
         }
 
+        updateDepth(current, 0);
         current.isWord = true;
         ++size;
     }
@@ -103,7 +249,25 @@ public class Trie {
      * @return 如果 Trie 中能匹配到 word，则返回 true；否则，返回 false。
      */
     public boolean match(String word) {
-        return match(root, word, 0);
+        return match(new WildcardPattern(new String[] { word }, false))[0];
+    }
+
+    /**
+     * 在 Trie 中匹配模式 pattern，如果有单词能够匹配，则返回 true；否则，返回 false。
+     * @param pattern 模式，支持 “.”（任意一个字符）、“[a-z]” / “[^a-z]”（字符类）、“*”（任意长度的字符序列）
+     * @return 如果 Trie 中有单词能够匹配 pattern，则返回 true；否则，返回 false。
+     */
+    public boolean matchPattern(String pattern) {
+        return matchAll(pattern)[0];
+    }
+
+    /**
+     * 批量匹配。所有模式在同一次遍历中完成匹配，每个节点最多只被访问一次。
+     * @param patterns 模式，语法同 matchPattern
+     * @return result[i] 表示 Trie 中是否有单词能够匹配 patterns[i]
+     */
+    public boolean[] matchAll(String... patterns) {
+        return match(new WildcardPattern(patterns, true));
     }
 
     /**
@@ -132,39 +296,495 @@ public class Trie {
     }
 
     /**
-     * 在以 root 为根节点的 Trie 中匹配 word，如果能够匹配到，则返回 true；否则，返回 false
-     * @param root  Trie 的根节点
-     * @param word  待匹配的字符串
-     * @param index word 中正在匹配的字符的索引
-     * @return 如果 Trie 能够匹配到 word，则返回 true；否则，返回 false
+     * 将当前的 Trie 编译成一个不可变的双数组字典树。之后对当前 Trie 的修改不会影响返回的 FrozenTrie。
+     * @return 与当前 Trie 含有相同单词的 FrozenTrie
      */
-    private boolean match(Node root, String word, int index) {
-        // 当 word 中所有的字符都匹配完，则终止递归。能否匹配到 word 这个单词，取决于匹配到的最后一个节点是否代表一个单词
-        if (index == word.length()) {
-            return root.isWord;
+    public FrozenTrie freeze() {
+        int[] charCode = buildCharCode();
+
+        int capacity = 1024;
+        int[] base = new int[capacity];
+        int[] check = new int[capacity];
+        boolean[] isWord = new boolean[capacity];
+        Arrays.fill(check, -1);
+        check[0] = 0; // 根状态为 0
+
+        // nextFree[p] 指向不小于 p 的某个位置，沿着 nextFree 不断向后跳，即可找到不小于 p 的第一个未被使用的位置，从而跳过已被使用的位置
+        int[] nextFree = new int[capacity + 1];
+        for (int i = 0; i <= capacity; ++i) {
+            nextFree[i] = i;
         }
+        nextFree[0] = 1;
+        int used = 1; // 已使用的数组长度
+        int searchStart = 1; // 查找空闲位置的起点
+
+        // 查找空闲位置的窗口大小，至少能容纳一个含有所有字符的节点
+        int window = SEARCH_WINDOW;
+        for (int code : charCode) {
+            window = Math.max(window, 2 * code);
+        }
+
+        // 按层序遍历 Trie，为每个节点的所有子节点寻找一个不冲突的 base
+        LinkedList<Node> nodes = new LinkedList<Node>();
+        LinkedList<Integer> states = new LinkedList<Integer>();
+        nodes.add(root);
+        states.add(0);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.poll();
+            int state = states.poll();
+            isWord[state] = node.isWord;
+            if (node.next.isEmpty()) {
+                continue; // base 为 0，表示没有子节点
+            }
 
-        // 获取当前正在匹配的字符
-        char c = word.charAt(index);
-        if ('.' == c) {
-            // 如果当前字符是 “.”，则所有子节点都需要进行匹配
-            Set<Entry<Character, Node>> childNodes = root.next.entrySet();
-            for (Entry<Character, Node> child : childNodes) {
-                if (match(child.getValue(), word, index + 1)) {
-                    return true; // 只要有一个子节点后面能够匹配完 word 剩余的字符，则说明 Trie 中包含 word，直接返回 true，无需对剩余的子节点进行匹配
+            int[] codes = new int[node.next.size()];
+            int k = 0;
+            for (char c : node.next.keySet()) {
+                codes[k++] = charCode[c];
+            }
+
+            // 让第一个子节点依次尝试每个未被使用的位置，直到所有子节点的位置都未被使用为止。
+            // searchStart 之前的区域已经几乎被填满，不再在其中查找
+            int b;
+            int from = Math.max(searchStart, codes[0] + 1);
+            int position = findFree(nextFree, from);
+            int rejected = 0; // 尝试过但放不下所有子节点的空闲位置个数
+            while (true) {
+                b = position - codes[0];
+                boolean fit = true;
+                for (int c : codes) {
+                    if (b + c < capacity && -1 != check[b + c]) {
+                        fit = false;
+                        break;
+                    }
                 }
+                if (fit) {
+                    break;
+                }
+                ++rejected;
+                position = findFree(nextFree, position + 1);
+            }
+
+            // [from, position) 中 95% 以上的位置都已被使用时，之后的节点也很难放进这个区域，下次直接从 position 开始查找；
+            // 另外，只在已使用区域的最后 window 个位置中查找，更早的区域即使还有零星的空位，也不再查找（参考 darts-clone）。
+            // 两者都会浪费少量空位，但每个节点的查找范围有了上限，构建时间随节点个数线性增长
+            if (from == searchStart && rejected * 20 <= position - from) {
+                searchStart = position;
+            }
+            searchStart = Math.max(searchStart, used - window);
+
+            // 确保数组足够长
+            int required = b + codes[codes.length - 1] + 1;
+            if (required > capacity) {
+                int newCapacity = Math.max(capacity * 2, required);
+                base = Arrays.copyOf(base, newCapacity);
+                isWord = Arrays.copyOf(isWord, newCapacity);
+                check = Arrays.copyOf(check, newCapacity);
+                Arrays.fill(check, capacity, newCapacity, -1);
+                nextFree = Arrays.copyOf(nextFree, newCapacity + 1);
+                for (int i = capacity + 1; i <= newCapacity; ++i) {
+                    nextFree[i] = i;
+                }
+                capacity = newCapacity;
+            }
+
+            base[state] = b;
+            k = 0;
+            for (Node child : node.next.values()) {
+                int childState = b + codes[k++];
+                check[childState] = state;
+                nextFree[childState] = childState + 1; // 位置已被使用
+                nodes.add(child);
+                states.add(childState);
+            }
+            used = Math.max(used, required);
+        }
+
+        return new FrozenTrie(Arrays.copyOf(base, used), Arrays.copyOf(check, used), Arrays.copyOf(isWord, used),
+                charCode, size);
+    }
+
+    /**
+     * 将当前的 Trie 编译成 Aho-Corasick 自动机，用于在文本中一次性查找所有单词。之后对当前 Trie 的修改不会影响返回的自动机。
+     * @return 含有当前 Trie 中所有单词（空串除外）的 Aho-Corasick 自动机
+     */
+    public AhoCorasick toAhoCorasick() {
+        int[] charCode = buildCharCode();
+        int alphabetSize = 0;
+        for (int code : charCode) {
+            alphabetSize = Math.max(alphabetSize, code);
+        }
+
+        // 按层序遍历 Trie，为节点编号，并记录状态转移（状态 s 的子状态编号是连续的，第 e 条边到达状态 e + 1）
+        List<Node> nodes = new ArrayList<Node>();
+        nodes.add(root);
+        int[] first = new int[16];
+        int[] codes = new int[16];
+        int[] parent = new int[16]; // 各个状态的父状态及深度，只用于还原单词
+        int[] depth = new int[16];
+        for (int s = 0; s < nodes.size(); ++s) {
+            if (s + 2 > first.length) {
+                first = Arrays.copyOf(first, first.length << 1);
+            }
+            first[s] = nodes.size() - 1;
+
+            for (Entry<Character, Node> child : nodes.get(s).next.entrySet()) {
+                int t = nodes.size();
+                if (t >= codes.length) {
+                    codes = Arrays.copyOf(codes, codes.length << 1);
+                    parent = Arrays.copyOf(parent, parent.length << 1);
+                    depth = Arrays.copyOf(depth, depth.length << 1);
+                }
+                codes[t - 1] = charCode[child.getKey()];
+                parent[t] = s;
+                depth[t] = depth[s] + 1;
+                nodes.add(child.getValue());
+            }
+        }
+        first[nodes.size()] = nodes.size() - 1;
+
+        // 只为单词状态还原单词，沿着父状态从后往前得到单词中的各个字符
+        char[] codeChar = new char[alphabetSize + 1];
+        for (int c = 0; c < charCode.length; ++c) {
+            codeChar[charCode[c]] = (char) c;
+        }
+        String[] words = new String[nodes.size()];
+        for (int s = 1; s < nodes.size(); ++s) { // 空串不作为单词
+            if (nodes.get(s).isWord) {
+                char[] word = new char[depth[s]];
+                for (int t = s, i = depth[s] - 1; t != 0; t = parent[t], --i) {
+                    word[i] = codeChar[codes[t - 1]];
+                }
+                words[s] = new String(word);
+            }
+        }
+
+        return new AhoCorasick(charCode, alphabetSize, Arrays.copyOf(first, nodes.size() + 1),
+                Arrays.copyOf(codes, nodes.size() - 1), words);
+    }
+
+    /**
+     * 为 Trie 中出现过的字符分配编码（从 1 开始），只需为实际出现的字符分配，从而减小数组的长度
+     * @return 字符编码表，charCode[c] 为字符 c 的编码。为 0 表示 Trie 中不含有该字符
+     */
+    private int[] buildCharCode() {
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int maxChar = -1;
+        LinkedList<Node> queue = new LinkedList<Node>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Entry<Character, Node> child : node.next.entrySet()) {
+                seen[child.getKey()] = true;
+                maxChar = Math.max(maxChar, child.getKey());
+                queue.add(child.getValue());
             }
-            // 所有的子节点都不能继续匹配 word，则以 root 为根节点的 Trie 无法匹配到 word
+        }
+
+        int[] charCode = new int[maxChar + 1];
+        int code = 0;
+        for (int c = 0; c <= maxChar; ++c) {
+            if (seen[c]) {
+                charCode[c] = ++code;
+            }
+        }
+        return charCode;
+    }
+
+    /**
+     * 单词 completion 新添加或者分数发生变化后，更新 node 的缓存。（调用前子节点的缓存必须是最新的）
+     * 
+     * 只需将 completion 移动（或插入）到缓存中按分数排列的位置，再截断为 topKCacheSize 个即可，不需要重新合并各个子节点的缓存。
+     * 唯一的例外是：分数降低后，completion 排在了已满的缓存的末尾，此时子树中不在缓存中的单词可能排在它前面，只能重新计算 node 的缓存
+     * @param node       节点
+     * @param completion 新添加或者分数发生变化的单词
+     * @param decreased  分数是否降低
+     * @return node 的缓存是否发生了变化。如果没有变化，则祖先节点的缓存也不会变化
+     */
+    private boolean updateTop(Node node, Completion completion, boolean decreased) {
+        int index = null == node.top ? -1 : node.top.indexOf(completion); // Completion 没有重写 equals，按引用查找
+        if (-1 == index && decreased) { // 分数降低之前就不在缓存中，降低之后更不会在
             return false;
-        } else {
-            // 如果当前字符是一般字母，则判断能否根据当前字符找到对应的子节点
-            // 如果根据当前字符未能找到对应的子节点，则 return false
-            if (!root.next.containsKey(c)) {
-                return false;
+        }
+
+        if (null == node.top) {
+            node.top = new ArrayList<Completion>();
+        }
+        List<Completion> top = node.top;
+        if (-1 != index) {
+            top.remove(index);
+        }
+
+        int position = 0;
+        while (position < top.size() && COMPLETION_ORDER.compare(top.get(position), completion) < 0) {
+            ++position;
+        }
+        if (position >= topKCacheSize) { // 排在前 topKCacheSize 个之后，不会进入缓存
+            return false;
+        }
+
+        top.add(position, completion);
+        if (top.size() > topKCacheSize) {
+            top.remove(top.size() - 1);
+        } else if (decreased && top.size() == topKCacheSize && position == topKCacheSize - 1) {
+            rebuildTop(node);
+        }
+        return true;
+    }
+
+    /**
+     * 根据 node 自身的单词以及各个子节点的缓存，重新计算 node 的缓存。（调用前子节点的缓存必须是最新的）
+     * @param node 节点
+     */
+    private void rebuildTop(Node node) {
+        List<Completion> candidates = new ArrayList<Completion>();
+        if (null != node.completion) {
+            candidates.add(node.completion);
+        }
+        for (Node child : node.next.values()) {
+            if (null != child.top) {
+                candidates.addAll(child.top);
+            }
+        }
+
+        Collections.sort(candidates, COMPLETION_ORDER);
+        if (candidates.size() > topKCacheSize) {
+            candidates = new ArrayList<Completion>(candidates.subList(0, topKCacheSize));
+        }
+        node.top = candidates.isEmpty() ? null : candidates;
+    }
+
+    /**
+     * 在 freeze 中，寻找不小于 position 的第一个未被使用的位置（超出数组范围的位置均视为未被使用）
+     * @param nextFree 空闲位置的跳转表
+     * @param position 起始位置
+     * @return 第一个未被使用的位置
+     */
+    private int findFree(int[] nextFree, int position) {
+        int free = position;
+        while (free < nextFree.length - 1 && nextFree[free] != free) {
+            free = nextFree[free];
+        }
+
+        // 路径压缩，让经过的位置直接指向找到的空闲位置
+        while (position < nextFree.length - 1 && nextFree[position] != position) {
+            int next = nextFree[position];
+            nextFree[position] = free;
+            position = next;
+        }
+        return free;
+    }
+
+    /**
+     * 匹配引擎使用的栈（非递归深度优先遍历），栈中每一项为一个节点及到达该节点时所有模式所处的状态集合。
+     * 所有状态集合依次存放在同一个数组 states 中，第 i 项的状态集合为 states[start[i], end[i])，不需要为每个节点单独创建数组。
+     * 出栈时，该项之后的状态集合都属于已经出栈的项，可以直接覆盖，所以 states 中只保存当前路径上各层的状态集合。
+     */
+    private class MatchStack {
+        Node[] nodes = new Node[16];
+        int[] start = new int[16];
+        int[] end = new int[16];
+        int size;
+
+        int[] states;
+        /**
+         * states 中已经使用的长度，新的状态集合从 top 开始存放
+         */
+        int top;
+
+        MatchStack(int capacity) {
+            states = new int[Math.max(16, capacity)];
+        }
+
+        /**
+         * 确保 states 中还能再存放 n 个状态
+         */
+        void reserve(int n) {
+            if (top + n > states.length) {
+                states = Arrays.copyOf(states, Math.max(states.length << 1, top + n));
+            }
+        }
+
+        /**
+         * 将 node 及其状态集合 states[from, top) 入栈
+         */
+        void push(Node node, int from) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size << 1);
+                start = Arrays.copyOf(start, size << 1);
+                end = Arrays.copyOf(end, size << 1);
+            }
+            nodes[size] = node;
+            start[size] = from;
+            end[size] = top;
+            ++size;
+        }
+
+        /**
+         * 栈顶项出栈，返回其节点。出栈后，其状态集合为 states[start[size], end[size])，之后入栈的状态集合存放在它的后面
+         */
+        Node pop() {
+            --size;
+            top = end[size];
+            Node node = nodes[size];
+            nodes[size] = null;
+            return node;
+        }
+    }
+
+    /**
+     * 匹配引擎：在 Trie 上模拟所有模式的非确定有限自动机。
+     * 使用显式栈进行深度优先遍历（非递归），栈中每一项为一个节点及到达该节点时所有模式所处的状态集合。
+     * 对于每个状态，根据节点子树中单词的最短、最长长度进行剪枝；当一个节点上没有任何状态时，不再访问其子树。
+     * @param pattern 编译后的模式
+     * @return 每个模式是否能被匹配
+     */
+    private boolean[] match(WildcardPattern pattern) {
+        int patternCount = pattern.offset.length;
+        boolean[] result = new boolean[patternCount];
+        int remaining = patternCount; // 尚未匹配成功的模式个数
+
+        int[] mark = new int[pattern.type.length]; // 用于对状态去重，mark[id] == stamp 表示状态 id 已经在当前集合中
+        int stamp = 1;
+
+        MatchStack stack = new MatchStack(patternCount << 1);
+        for (int p = 0; p < patternCount; ++p) {
+            stack.states[stack.top++] = pattern.offset[p];
+        }
+        closure(pattern, root, stack, 0, patternCount, mark, stamp++);
+
+        while (stack.size > 0 && remaining > 0) {
+            Node node = stack.pop();
+            int from = stack.start[stack.size];
+            int to = stack.end[stack.size];
+            int[] states = stack.states;
+
+            // 检查是否有模式在当前节点匹配成功，并去掉已经匹配成功的模式的状态（原地压缩到 states[from, from + count) 中）
+            boolean literalOnly = true; // 是否所有状态都只能匹配单个确定的字符
+            int count = 0;
+            for (int i = from; i < to; ++i) {
+                int id = states[i];
+                int p = pattern.patternOf[id];
+                if (result[p]) {
+                    continue;
+                }
+                if (WildcardPattern.END == pattern.type[id]) {
+                    if (node.isWord) {
+                        result[p] = true;
+                        --remaining;
+                    }
+                    continue;
+                }
+                literalOnly &= WildcardPattern.CHAR == pattern.type[id];
+                states[from + count++] = id;
+            }
+            if (0 == count) {
+                continue;
+            }
+
+            if (literalOnly) {
+                // 只需访问各个状态所需字符对应的子节点，无需遍历所有子节点
+                for (int i = 0; i < count; ++i) {
+                    char c = pattern.ch[stack.states[from + i]];
+                    if (visitedChar(pattern, stack.states, from, from + i, c)) {
+                        continue; // 多个状态需要同一个字符时，只访问一次对应的子节点
+                    }
+                    Node child = node.next.get(c);
+                    if (null == child) {
+                        continue;
+                    }
+                    pushChild(pattern, child, c, stack, from, count, mark, stamp++);
+                }
+            } else {
+                for (Entry<Character, Node> child : node.next.entrySet()) {
+                    pushChild(pattern, child.getValue(), child.getKey(), stack, from, count, mark, stamp++);
+                }
             }
+        }
+
+        return result;
+    }
 
-            // 如果能找到对应的子节点，则以该子节点为根节点，继续匹配
-            return match(root.next.get(c), word, index + 1);
+    /**
+     * 判断 states[from, i) 中是否已经有状态需要字符 c
+     */
+    private boolean visitedChar(WildcardPattern pattern, int[] states, int from, int i, char c) {
+        for (int j = from; j < i; ++j) {
+            if (pattern.ch[states[j]] == c) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * 计算状态集合 stack.states[from, from + count) 经过字符 c 到达 child 后的状态集合，如果集合不为空，则将其压入栈中
+     */
+    private void pushChild(WildcardPattern pattern, Node child, char c, MatchStack stack, int from, int count,
+            int[] mark, int stamp) {
+        stack.reserve(count);
+        int[] states = stack.states;
+        int begin = stack.top;
+        for (int i = from; i < from + count; ++i) {
+            int id = states[i];
+            if (pattern.accepts(id, c)) {
+                // “*” 匹配字符 c 后依然停留在原状态，其它记号匹配后进入下一个状态
+                states[stack.top++] = WildcardPattern.STAR == pattern.type[id] ? id : id + 1;
+            }
+        }
+        if (begin == stack.top) {
+            return;
+        }
+
+        closure(pattern, child, stack, begin, stack.top - begin, mark, stamp);
+    }
+
+    /**
+     * 计算状态集合 stack.states[from, from + count) 的闭包（“*” 可以匹配空串，因此处于 “*” 状态时，也同时处于其下一个状态），
+     * 去重并根据 node 的深度信息剪枝。闭包会覆盖原状态集合（from 必须等于 top - count），如果闭包不为空，则将 node 及闭包压入栈中
+     */
+    private void closure(WildcardPattern pattern, Node node, MatchStack stack, int from, int count, int[] mark,
+            int stamp) {
+        // 闭包先追加在原状态集合之后，计算完成后再移动到 from 处
+        for (int i = from; i < from + count; ++i) {
+            for (int id = stack.states[i]; mark[id] != stamp; ++id) {
+                mark[id] = stamp;
+                if (canMatch(pattern, node, id)) {
+                    stack.reserve(1);
+                    stack.states[stack.top++] = id;
+                }
+                if (WildcardPattern.STAR != pattern.type[id]) {
+                    break;
+                }
+            }
+        }
+
+        int size = stack.top - from - count;
+        System.arraycopy(stack.states, from + count, stack.states, from, size);
+        stack.top = from + size;
+        if (size > 0) {
+            stack.push(node, from);
+        }
+    }
+
+    /**
+     * 根据 node 子树中单词的最短、最长长度，判断从状态 id 出发是否还有可能匹配成功
+     */
+    private boolean canMatch(WildcardPattern pattern, Node node, int id) {
+        int need = pattern.minRemaining[id];
+        if (pattern.hasStar[id]) {
+            return node.maxDepth >= need;
+        }
+        return node.minDepth <= need && need <= node.maxDepth;
+    }
+
+    /**
+     * 更新节点的深度信息
+     * @param node  节点
+     * @param depth 从该节点开始计算的单词剩余长度
+     */
+    private void updateDepth(Node node, int depth) {
+        node.minDepth = Math.min(node.minDepth, depth);
+        node.maxDepth = Math.max(node.maxDepth, depth);
     }
 }
@@ -0,0 +1,182 @@
+package trie;
+
+/**
+ * 将一组通配符模式编译成状态数组，供 Trie 的匹配引擎使用
+ *
+ * 支持的语法：
+ *  （1）“.”：匹配任意一个字符
+ *  （2）“[abc]”、“[a-z]”、“[^a-z]”：字符类，匹配（或不匹配）其中的任意一个字符
+ *  （3）“*”：匹配任意长度（包括 0）的字符序列
+ *  （4）其它字符：匹配该字符本身
+ *
+ * 第 p 个模式的第 i 个记号对应的状态 id 为 offset[p] + i，状态 offset[p] + length(p) 为终止状态（模式已全部匹配完）。
+ */
+class WildcardPattern {
+
+    static final int CHAR = 0;
+    static final int ANY = 1;
+    static final int CLASS = 2;
+    static final int STAR = 3;
+    static final int END = 4;
+
+    /**
+     * 各个状态对应记号的类型
+     */
+    final int[] type;
+
+    /**
+     * CHAR 类型的记号所匹配的字符
+     */
+    final char[] ch;
+
+    /**
+     * CLASS 类型的记号所含有的字符区间，按 [from0, to0, from1, to1, ...] 存储
+     */
+    final char[][] ranges;
+
+    /**
+     * CLASS 类型的记号是否取反
+     */
+    final boolean[] negated;
+
+    /**
+     * 状态所属的模式
+     */
+    final int[] patternOf;
+
+    /**
+     * 从该状态开始，剩余部分至少需要匹配的字符个数（即剩余的非 “*” 记号个数）
+     */
+    final int[] minRemaining;
+
+    /**
+     * 从该状态开始，剩余部分是否含有 “*”（若含有，则可以匹配任意长的字符串）
+     */
+    final boolean[] hasStar;
+
+    /**
+     * 各个模式起始状态的 id
+     */
+    final int[] offset;
+
+    /**
+     * @param patterns 模式
+     * @param extended 是否支持字符类及 “*”。如果为 false，则只有 “.” 是通配符，其它字符均匹配其本身
+     */
+    WildcardPattern(String[] patterns, boolean extended) {
+        // 先计算每个模式的记号个数，从而确定状态总数
+        offset = new int[patterns.length];
+        int total = 0;
+        for (int p = 0; p < patterns.length; ++p) {
+            offset[p] = total;
+            total += countTokens(patterns[p], extended) + 1; // 加上终止状态
+        }
+
+        type = new int[total];
+        ch = new char[total];
+        ranges = new char[total][];
+        negated = new boolean[total];
+        patternOf = new int[total];
+        minRemaining = new int[total];
+        hasStar = new boolean[total];
+
+        for (int p = 0; p < patterns.length; ++p) {
+            compile(patterns[p], p, extended);
+        }
+    }
+
+    /**
+     * 判断状态 id 对应的记号能否匹配字符 c
+     */
+    boolean accepts(int id, char c) {
+        switch (type[id]) {
+        case CHAR:
+            return ch[id] == c;
+        case ANY:
+        case STAR:
+            return true;
+        case CLASS:
+            char[] r = ranges[id];
+            boolean in = false;
+            for (int i = 0; i < r.length && !in; i += 2) {
+                in = r[i] <= c && c <= r[i + 1];
+            }
+            return in != negated[id];
+        default:
+            return false;
+        }
+    }
+
+    private int countTokens(String pattern, boolean extended) {
+        int count = 0;
+        for (int i = 0; i < pattern.length(); ++i, ++count) {
+            if (extended && '[' == pattern.charAt(i)) {
+                i = classEnd(pattern, i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 返回从 start 处的 “[” 开始的字符类的结束位置（“]” 的位置）
+     */
+    private int classEnd(String pattern, int start) {
+        int end = pattern.indexOf(']', start + 1);
+        if (-1 == end) {
+            throw new IllegalArgumentException("Unclosed character class: " + pattern);
+        }
+        return end;
+    }
+
+    private void compile(String pattern, int p, boolean extended) {
+        int id = offset[p];
+        for (int i = 0; i < pattern.length(); ++i, ++id) {
+            patternOf[id] = p;
+            char c = pattern.charAt(i);
+            if ('.' == c) {
+                type[id] = ANY;
+            } else if (extended && '*' == c) {
+                type[id] = STAR;
+            } else if (extended && '[' == c) {
+                int end = classEnd(pattern, i);
+                type[id] = CLASS;
+                compileClass(pattern.substring(i + 1, end), id);
+                i = end;
+            } else {
+                type[id] = CHAR;
+                ch[id] = c;
+            }
+        }
+        patternOf[id] = p;
+        type[id] = END;
+
+        // 从后向前计算每个状态的剩余长度信息
+        for (int j = id - 1; j >= offset[p]; --j) {
+            minRemaining[j] = minRemaining[j + 1] + (STAR == type[j] ? 0 : 1);
+            hasStar[j] = hasStar[j + 1] || STAR == type[j];
+        }
+    }
+
+    private void compileClass(String body, int id) {
+        if (body.startsWith("^")) {
+            negated[id] = true;
+            body = body.substring(1);
+        }
+
+        char[] r = new char[body.length() * 2];
+        int count = 0;
+        for (int i = 0; i < body.length(); ++i) {
+            char from = body.charAt(i);
+            char to = from;
+            if (i + 2 < body.length() && '-' == body.charAt(i + 1)) {
+                to = body.charAt(i + 2);
+                i += 2;
+            }
+            r[count++] = from;
+            r[count++] = to;
+        }
+
+        ranges[id] = new char[count];
+        System.arraycopy(r, 0, ranges[id], 0, count);
+    }
+}
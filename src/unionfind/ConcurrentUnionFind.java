@@ -0,0 +1,236 @@
+package unionfind;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * 线程安全的并查集，无锁实现（基于 CAS）
+ * 在树中，子节点指向父节点。并且，树的根顶点代表这棵树对应的元素集合的 id。
+ *
+ * 与 UnionFind6 相比：
+ *  （1）parentId 使用 ParentArray（基于 AtomicIntegerArray）存储，合并时通过 CAS 将一个根顶点指向另一个根顶点，若 CAS 失败（根顶点已被其它线程修改），则重新查找根顶点后重试
+ *  （2）合并时总是将索引较小的根顶点指向索引较大的根顶点，从而保证并发合并时不会形成环
+ *  （3）查找时使用路径减半（让节点指向其祖父节点），只是一种优化，CAS 失败也无需重试，因此查找操作不会被其它线程阻塞
+ *
+ * 此外，提供了批量合并 unionAll 及 componentLabels，使用 fork-join 并行处理大量的边。
+ */
+public class ConcurrentUnionFind implements UnionFind {
+
+    /**
+     * 并行处理时，每个子任务至少处理的元素个数
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * unionAll 第一阶段的采样间隔，即每隔 SAMPLE_STRIDE 条边取一条
+     */
+    private static final int SAMPLE_STRIDE = 8;
+
+    /**
+     * 估计最大集合时采样的元素个数
+     */
+    private static final int SAMPLE_SIZE = 1024;
+
+    /**
+     * 存储各个元素的父节点 id
+     */
+    private ParentArray parentId;
+
+    public ConcurrentUnionFind(int[] data) {
+        // 初始时，每个元素所属的集合都不一样
+        parentId = new ParentArray(data.length);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        while (true) {
+            int pId = find(p);
+            int qId = find(q);
+            if (pId == qId) {
+                return;
+            }
+
+            // 将索引较小的根顶点指向索引较大的根顶点。CAS 成功，说明 pId 在合并时依然是根顶点
+            boolean linked = pId < qId ? parentId.link(pId, qId) : parentId.link(qId, pId);
+            if (linked) {
+                return;
+            }
+            // 根顶点已被其它线程合并到别的树中，重新查找根顶点后重试
+        }
+    }
+
+    @Override
+    public boolean isConnected(int p, int q) {
+        while (true) {
+            int pId = find(p);
+            int qId = find(q);
+            if (pId == qId) {
+                return true;
+            }
+
+            // pId 依然是根顶点，说明在查找 qId 的过程中，p 所在的树没有被合并，此时 p、q 确实不相连
+            if (parentId.get(pId) == pId) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return parentId.length();
+    }
+
+    /**
+     * 并行地合并所有的边 (ps[i], qs[i])，结果与依次调用 union(ps[i], qs[i]) 相同。
+     * 
+     * 处理过程分为两个阶段（参考 Afforest 算法）：
+     *  （1）先并行合并一部分采样的边，然后压缩路径，让每个元素直接指向其根顶点。此时通常已经形成了一个很大的集合
+     *  （2）通过采样估计出最大的集合，然后并行合并剩余的边。两个端点都已直接指向最大集合根顶点的边可以直接跳过，
+     *      从而避免了大量的查找以及对同一个根顶点的 CAS 竞争
+     * 
+     * @param ps 各条边的一个端点
+     * @param qs 各条边的另一个端点
+     */
+    public void unionAll(final int[] ps, final int[] qs) {
+        if (ps.length != qs.length) {
+            throw new IllegalArgumentException("Illegal edge arrays!");
+        }
+
+        // 第一阶段：合并采样的边
+        final int sampleCount = (ps.length + SAMPLE_STRIDE - 1) / SAMPLE_STRIDE;
+        parallelFor(sampleCount, i -> union(ps[i * SAMPLE_STRIDE], qs[i * SAMPLE_STRIDE]));
+        compress();
+
+        // 第二阶段：合并剩余的边，跳过两个端点都在最大集合中的边
+        final int largest = sampleLargestComponent();
+        parallelFor(ps.length, i -> {
+            if (0 == i % SAMPLE_STRIDE) {
+                return; // 第一阶段已经处理过
+            }
+            if (parentId.get(ps[i]) == largest && parentId.get(qs[i]) == largest) {
+                return;
+            }
+            union(ps[i], qs[i]);
+        });
+    }
+
+    /**
+     * 并行地计算每个元素所属的集合 id
+     * @return labels[i] 为元素 i 所属集合的 id（即根顶点）。两个元素相连，当且仅当其 label 相同
+     */
+    public int[] componentLabels() {
+        final int[] labels = new int[parentId.length()];
+        parallelFor(labels.length, i -> labels[i] = find(i));
+        return labels;
+    }
+
+    /**
+     * 并行地压缩路径，让每个元素直接指向其根顶点
+     */
+    private void compress() {
+        parallelFor(parentId.length(), i -> {
+            int root = find(i);
+            int parent = parentId.get(i);
+            if (parent != root && parent != i) {
+                parentId.shortcut(i, parent, root);
+            }
+        });
+    }
+
+    /**
+     * 随机采样若干个元素，返回其中出现次数最多的集合 id
+     */
+    private int sampleLargestComponent() {
+        int n = parentId.length();
+        if (0 == n) {
+            return -1;
+        }
+
+        Random random = new Random();
+        int[] samples = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; ++i) {
+            samples[i] = parentId.get(random.nextInt(n));
+        }
+        Arrays.sort(samples);
+
+        int best = samples[0];
+        int bestCount = 0;
+        for (int i = 0, j; i < SAMPLE_SIZE; i = j) {
+            j = i;
+            while (j < SAMPLE_SIZE && samples[j] == samples[i]) {
+                ++j;
+            }
+            if (j - i > bestCount) {
+                bestCount = j - i;
+                best = samples[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 使用 fork-join 对 [0, n) 中的每个 i 并行执行 action
+     */
+    private void parallelFor(int n, IntConsumer action) {
+        ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, n));
+    }
+
+    /**
+     * 对 [from, to) 执行 action 的子任务
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private IntConsumer action;
+        private int from;
+        private int to;
+
+        public RangeTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; ++i) {
+                    action.accept(i);
+                }
+                return;
+            }
+
+            // 将区间一分为二，分别交给两个子任务处理
+            int mid = from + (to - from) / 2;
+            invokeAll(new RangeTask(action, from, mid), new RangeTask(action, mid, to));
+        }
+    }
+
+    /**
+     * 寻找 index 处的元素所属的集合 id，实际上也就是树的根顶点
+     * @param index 索引
+     * @return 返回 index 处元素的集合 id
+     */
+    private int find(int index) {
+        if (index < 0 || index >= parentId.length()) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        while (true) {
+            int parent = parentId.get(index);
+            if (parent == index) {
+                return index;
+            }
+
+            // 路径减半：让 index 指向其祖父节点，然后跳到祖父节点继续查找
+            int grandParent = parentId.get(parent);
+            if (parent != grandParent) {
+                parentId.shortcut(index, parent, grandParent);
+            }
+            index = grandParent;
+        }
+    }
+}
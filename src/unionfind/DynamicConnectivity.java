@@ -0,0 +1,221 @@
+package unionfind;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 离线动态连通性：依次记录加边、删边、查询事件，之后通过 solve 一次性回答所有的查询。
+ *
+ * 若每次查询都重新构建并查集，时间复杂度为 O(m^2)。这里使用线段树分治（按时间分治）：
+ *  （1）每条边在一段连续的时间（查询编号区间）内存在，将该区间拆分后挂到线段树的 O(log m) 个节点上
+ *  （2）深度优先遍历线段树：进入节点时合并挂在该节点上的边，到达叶子时回答对应的查询，离开节点时通过 RollbackUnionFind 撤销这些合并
+ * 总时间复杂度为 O(m log m log n)。
+ */
+public class DynamicConnectivity {
+
+    private int n;
+
+    /**
+     * 各条边的端点及其加入时的查询编号（即加入之前已有的查询个数）
+     */
+    private int[] edgeP;
+    private int[] edgeQ;
+    private int[] edgeStart;
+    /**
+     * 各条边被删除时的查询编号，为 -1 表示尚未删除
+     */
+    private int[] edgeEnd;
+    private int edgeCount;
+
+    /**
+     * 各个查询的两个元素
+     */
+    private int[] queryP;
+    private int[] queryQ;
+    private int queryCount;
+
+    /**
+     * 每对元素当前存在的边（可能有重复的边），值为这些边的编号组成的栈（stack[0] 为栈的大小，之后依次为各条边的编号）
+     */
+    private Map<Long, int[]> openEdges;
+
+    public DynamicConnectivity(int n) {
+        this.n = n;
+        edgeP = new int[16];
+        edgeQ = new int[16];
+        edgeStart = new int[16];
+        edgeEnd = new int[16];
+        queryP = new int[16];
+        queryQ = new int[16];
+        openEdges = new HashMap<Long, int[]>();
+    }
+
+    /**
+     * 添加一条边 (p, q)
+     */
+    public void addEdge(int p, int q) {
+        checkIndex(p);
+        checkIndex(q);
+
+        if (edgeCount == edgeP.length) {
+            int newLength = edgeCount * 2;
+            edgeP = Arrays.copyOf(edgeP, newLength);
+            edgeQ = Arrays.copyOf(edgeQ, newLength);
+            edgeStart = Arrays.copyOf(edgeStart, newLength);
+            edgeEnd = Arrays.copyOf(edgeEnd, newLength);
+        }
+        edgeP[edgeCount] = p;
+        edgeQ[edgeCount] = q;
+        edgeStart[edgeCount] = queryCount;
+        edgeEnd[edgeCount] = -1;
+
+        Long key = key(p, q);
+        int[] stack = openEdges.get(key);
+        if (null == stack) {
+            stack = new int[4];
+        } else if (stack[0] + 1 == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[++stack[0]] = edgeCount;
+        openEdges.put(key, stack);
+        ++edgeCount;
+    }
+
+    /**
+     * 删除一条边 (p, q)。若 (p, q) 之间有多条边，只删除其中一条
+     */
+    public void removeEdge(int p, int q) {
+        checkIndex(p);
+        checkIndex(q);
+
+        Long key = key(p, q);
+        int[] stack = openEdges.get(key);
+        if (null == stack) {
+            throw new IllegalArgumentException("Edge doesn't exist!");
+        }
+        edgeEnd[stack[stack[0]--]] = queryCount;
+        if (0 == stack[0]) {
+            openEdges.remove(key);
+        }
+    }
+
+    /**
+     * 添加一个查询：在当前时刻，p、q 是否相连
+     * @return 查询的编号，对应 solve 返回的数组中的下标
+     */
+    public int query(int p, int q) {
+        checkIndex(p);
+        checkIndex(q);
+
+        if (queryCount == queryP.length) {
+            queryP = Arrays.copyOf(queryP, queryCount * 2);
+            queryQ = Arrays.copyOf(queryQ, queryCount * 2);
+        }
+        queryP[queryCount] = p;
+        queryQ[queryCount] = q;
+        return queryCount++;
+    }
+
+    /**
+     * 回答到目前为止添加的所有查询
+     * @return 各个查询的结果，下标为 query 返回的编号
+     */
+    public boolean[] solve() {
+        boolean[] answers = new boolean[queryCount];
+        if (0 == queryCount) {
+            return answers;
+        }
+
+        // 线段树的每个节点用链表（数组实现）存储挂在该节点上的边
+        int[] head = new int[4 * queryCount];
+        Arrays.fill(head, -1);
+        EdgeLists lists = new EdgeLists(head);
+        for (int e = 0; e < edgeCount; ++e) {
+            int end = -1 == edgeEnd[e] ? queryCount : edgeEnd[e];
+            if (edgeStart[e] < end) {
+                insert(lists, 0, 0, queryCount - 1, edgeStart[e], end - 1, e);
+            }
+        }
+
+        RollbackUnionFind unionFind = new RollbackUnionFind(new int[n]);
+        solve(lists, unionFind, 0, 0, queryCount - 1, answers);
+        return answers;
+    }
+
+    /**
+     * 线段树节点上的边链表：head[node] 为第一个表项，next[i] 为下一个表项，edge[i] 为表项对应的边
+     */
+    private static class EdgeLists {
+        int[] head;
+        int[] next = new int[16];
+        int[] edge = new int[16];
+        int size;
+
+        EdgeLists(int[] head) {
+            this.head = head;
+        }
+
+        void add(int node, int e) {
+            if (size == next.length) {
+                next = Arrays.copyOf(next, size * 2);
+                edge = Arrays.copyOf(edge, size * 2);
+            }
+            edge[size] = e;
+            next[size] = head[node];
+            head[node] = size++;
+        }
+    }
+
+    /**
+     * 将边 e 挂到线段树中完全被 [l, r] 覆盖的节点上
+     */
+    private void insert(EdgeLists lists, int treeIndex, int treeLeft, int treeRight, int l, int r, int e) {
+        if (l <= treeLeft && treeRight <= r) {
+            lists.add(treeIndex, e);
+            return;
+        }
+
+        int mid = treeLeft + (treeRight - treeLeft) / 2;
+        if (l <= mid) {
+            insert(lists, 2 * treeIndex + 1, treeLeft, mid, l, r, e);
+        }
+        if (r > mid) {
+            insert(lists, 2 * treeIndex + 2, mid + 1, treeRight, l, r, e);
+        }
+    }
+
+    /**
+     * 深度优先遍历线段树，回答 [treeLeft, treeRight] 中的查询
+     */
+    private void solve(EdgeLists lists, RollbackUnionFind unionFind, int treeIndex, int treeLeft, int treeRight, boolean[] answers) {
+        int checkpoint = unionFind.checkpoint();
+        for (int i = lists.head[treeIndex]; -1 != i; i = lists.next[i]) {
+            int e = lists.edge[i];
+            unionFind.union(edgeP[e], edgeQ[e]);
+        }
+
+        if (treeLeft == treeRight) {
+            answers[treeLeft] = unionFind.isConnected(queryP[treeLeft], queryQ[treeLeft]);
+        } else {
+            int mid = treeLeft + (treeRight - treeLeft) / 2;
+            solve(lists, unionFind, 2 * treeIndex + 1, treeLeft, mid, answers);
+            solve(lists, unionFind, 2 * treeIndex + 2, mid + 1, treeRight, answers);
+        }
+
+        unionFind.rollback(checkpoint);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= n) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+    }
+
+    /**
+     * 无向边 (p, q) 与 (q, p) 对应同一个 key
+     */
+    private static Long key(int p, int q) {
+        return p < q ? ((long) p << 32) | q : ((long) q << 32) | p;
+    }
+}
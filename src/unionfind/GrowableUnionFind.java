@@ -0,0 +1,139 @@
+package unionfind;
+
+/**
+ * 可动态增长的并查集，可以随时通过 add 添加新的元素。
+ * 在树中，子节点指向父节点。并且，树的根顶点代表这棵树对应的元素集合的 id。
+ *
+ * parentId、rank 按块（chunk）存储，每块的大小固定为 CHUNK_SIZE。添加元素时，若当前的块已满，只需分配一个新的块，
+ * 已有的块不会被复制；块数组本身按两倍扩容，只复制块的引用，因此添加元素的均摊时间复杂度为 O(1)。
+ * 合并及查找的方式与 UnionFind6 相同（按 rank 合并、路径压缩），但查找使用迭代的路径减半，不会因为递归过深而栈溢出。
+ */
+public class GrowableUnionFind implements UnionFind {
+
+    /**
+     * 每块大小为 2^CHUNK_SHIFT
+     */
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * 存储各个元素的父节点 id，元素 i 位于 parentId[i >>> CHUNK_SHIFT][i & CHUNK_MASK]
+     */
+    private int[][] parentId;
+    /**
+     * 存储各个集合对应树的 rank 值，只有根顶点的 rank 是有意义的
+     */
+    private int[][] rank;
+
+    /**
+     * 元素的个数
+     */
+    private int size;
+
+    public GrowableUnionFind() {
+        parentId = new int[1][];
+        rank = new int[1][];
+    }
+
+    public GrowableUnionFind(int[] data) {
+        this();
+        for (int i = 0; i < data.length; ++i) {
+            add();
+        }
+    }
+
+    /**
+     * 添加一个新的元素，新元素自成一个集合
+     * @return 新元素的 id，依次为 0, 1, 2, ...
+     */
+    public int add() {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        if (chunk == parentId.length) {
+            // 块数组已满，按两倍扩容（只复制块的引用）
+            int[][] newParentId = new int[chunk * 2][];
+            int[][] newRank = new int[chunk * 2][];
+            System.arraycopy(parentId, 0, newParentId, 0, chunk);
+            System.arraycopy(rank, 0, newRank, 0, chunk);
+            parentId = newParentId;
+            rank = newRank;
+        }
+        if (null == parentId[chunk]) {
+            parentId[chunk] = new int[CHUNK_SIZE];
+            rank[chunk] = new int[CHUNK_SIZE];
+        }
+
+        parentId[chunk][index & CHUNK_MASK] = index;
+        rank[chunk][index & CHUNK_MASK] = 1;
+        ++size;
+        return index;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int pId = find(p);
+        int qId = find(q);
+        if (pId == qId) {
+            return;
+        }
+
+        // 根据树的高度进行合并（将低的树合并到高的树里面）
+        int pRank = getRank(pId);
+        int qRank = getRank(qId);
+        if (pRank == qRank) {
+            setParent(qId, pId);
+            setRank(pId, pRank + 1);
+        } else if (pRank > qRank) {
+            setParent(qId, pId);
+        } else { // pRank < qRank
+            setParent(pId, qId);
+        }
+    }
+
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 寻找 index 处的元素所属的集合 id，实际上也就是树的根顶点
+     * @param index 索引
+     * @return 返回 index 处元素的集合 id
+     */
+    private int find(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        int parent;
+        while ((parent = getParent(index)) != index) {
+            // 路径减半：让 index 指向其祖父节点，然后跳到祖父节点继续查找
+            int grandParent = getParent(parent);
+            setParent(index, grandParent);
+            index = grandParent;
+        }
+        return index;
+    }
+
+    private int getParent(int index) {
+        return parentId[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private void setParent(int index, int parent) {
+        parentId[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = parent;
+    }
+
+    private int getRank(int index) {
+        return rank[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private void setRank(int index, int r) {
+        rank[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = r;
+    }
+}
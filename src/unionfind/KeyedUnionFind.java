@@ -0,0 +1,145 @@
+package unionfind;
+
+/**
+ * 以任意对象作为元素的并查集，元素可以随时添加。
+ *
+ * 内部将每个元素映射成一个整数 id，再使用 GrowableUnionFind 进行合并与查找。
+ * 元素到 id 的映射使用内置的开放寻址哈希表（线性探测），id 直接存储在 int 数组中，不需要装箱成 Integer；
+ * 每次操作对每个元素只进行一次哈希查找，查找不到时在同一位置直接插入。
+ *
+ * @param <E> 元素的类型，需要正确实现 hashCode 及 equals
+ */
+public class KeyedUnionFind<E> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 哈希表中元素个数超过 capacity * LOAD_FACTOR 时扩容
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /**
+     * 哈希表的槽位，为 null 表示空槽
+     */
+    private Object[] elements;
+    /**
+     * ids[i] 为 elements[i] 对应的 id
+     */
+    private int[] ids;
+
+    private GrowableUnionFind unionFind;
+
+    public KeyedUnionFind() {
+        elements = new Object[INITIAL_CAPACITY];
+        ids = new int[INITIAL_CAPACITY];
+        unionFind = new GrowableUnionFind();
+    }
+
+    /**
+     * 添加元素 e，新元素自成一个集合。如果 e 已经存在，则不做任何修改
+     * @param e 元素
+     */
+    public void add(E e) {
+        idOf(e, true);
+    }
+
+    /**
+     * 判断是否含有元素 e
+     * @param e 元素
+     * @return 如果含有元素 e，则返回 true；否则，返回 false
+     */
+    public boolean contains(E e) {
+        return -1 != idOf(e, false);
+    }
+
+    /**
+     * 合并 p、q 所属的集合。不存在的元素会先被添加
+     * @param p 元素
+     * @param q 元素
+     */
+    public void union(E p, E q) {
+        unionFind.union(idOf(p, true), idOf(q, true));
+    }
+
+    /**
+     * 判断 p、q 是否属于同一个集合
+     * @param p 元素
+     * @param q 元素
+     * @return 如果 p、q 属于同一个集合，则返回 true；否则，返回 false。不存在的元素只与自身相连
+     */
+    public boolean isConnected(E p, E q) {
+        int pId = idOf(p, false);
+        int qId = idOf(q, false);
+        if (-1 == pId || -1 == qId) {
+            return p.equals(q);
+        }
+        return unionFind.isConnected(pId, qId);
+    }
+
+    /**
+     * @return 元素的个数
+     */
+    public int size() {
+        return unionFind.size();
+    }
+
+    /**
+     * 查找元素 e 对应的 id
+     * @param e   元素
+     * @param add 如果 e 不存在，是否添加 e
+     * @return e 对应的 id。如果 e 不存在并且不添加，则返回 -1
+     */
+    private int idOf(E e, boolean add) {
+        if (null == e) {
+            throw new IllegalArgumentException("Element can't be null!");
+        }
+
+        int mask = elements.length - 1;
+        int i = hash(e) & mask;
+        while (null != elements[i]) {
+            if (elements[i].equals(e)) {
+                return ids[i];
+            }
+            i = (i + 1) & mask;
+        }
+        if (!add) {
+            return -1;
+        }
+
+        // 在找到的空槽中直接插入，无需再次查找
+        int id = unionFind.add();
+        elements[i] = e;
+        ids[i] = id;
+        if (unionFind.size() > elements.length * LOAD_FACTOR) {
+            resize(elements.length * 2);
+        }
+        return id;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] oldElements = elements;
+        int[] oldIds = ids;
+        elements = new Object[newCapacity];
+        ids = new int[newCapacity];
+
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldElements.length; ++j) {
+            if (null != oldElements[j]) {
+                int i = hash(oldElements[j]) & mask;
+                while (null != elements[i]) {
+                    i = (i + 1) & mask;
+                }
+                elements[i] = oldElements[j];
+                ids[i] = oldIds[j];
+            }
+        }
+    }
+
+    /**
+     * 打散 hashCode 的高位，减少线性探测时的聚集
+     */
+    private static int hash(Object e) {
+        int h = e.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
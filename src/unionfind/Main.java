@@ -9,7 +9,10 @@ public class Main {
 //        UnionFind unionFind = new UnionFind3(data);
 //        UnionFind unionFind = new UnionFind4(data);
 //        UnionFind unionFind = new UnionFind5(data);
-        UnionFind unionFind = new UnionFind6(data);
+//        UnionFind unionFind = new UnionFind6(data);
+        UnionFind unionFind = new UnionFind7(data);
+//        UnionFind unionFind = new ConcurrentUnionFind(data);
+//        UnionFind unionFind = new GrowableUnionFind(data);
         
         System.out.println(unionFind.getClass());
         
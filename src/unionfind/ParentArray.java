@@ -0,0 +1,44 @@
+package unionfind;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * ConcurrentUnionFind 中存储父节点 id 的数组，初始时每个元素的父节点都是其自身。
+ *
+ * 这是 Java 8 的实现。打包成 multi-release jar 后，Java 21 及以上版本会加载 src-java21 中的同名类，
+ * 其中 shortcut 使用更弱的内存序，在 ARM 等弱内存模型的处理器上代价更低。
+ */
+final class ParentArray {
+
+    private final AtomicIntegerArray parents;
+
+    ParentArray(int length) {
+        parents = new AtomicIntegerArray(length);
+        for (int i = 0; i < length; ++i) {
+            parents.set(i, i);
+        }
+    }
+
+    int length() {
+        return parents.length();
+    }
+
+    int get(int index) {
+        return parents.get(index);
+    }
+
+    /**
+     * 若 root 依然是根顶点，则将其父节点设置为 parent
+     * @return 如果设置成功，则返回 true；否则（root 已不是根顶点），返回 false
+     */
+    boolean link(int root, int parent) {
+        return parents.compareAndSet(root, root, parent);
+    }
+
+    /**
+     * 若 index 的父节点依然是 expected，则将其父节点修改为祖先节点 ancestor。只是路径压缩的优化，允许失败
+     */
+    void shortcut(int index, int expected, int ancestor) {
+        parents.compareAndSet(index, expected, ancestor);
+    }
+}
@@ -0,0 +1,135 @@
+package unionfind;
+
+import java.util.Arrays;
+
+/**
+ * 可回滚的并查集，基于树实现（根据树的高度进行合并，不进行路径压缩）
+ * 在树中，子节点指向父节点。并且，树的根顶点代表这棵树对应的元素集合的 id。
+ *
+ * 每次成功的合并只修改一个根顶点的父节点（以及可能的 rank），将修改记录在栈中，即可按相反的顺序撤销。
+ * 路径压缩会修改查找路径上的很多节点，无法以 O(1) 的代价撤销，因此不使用路径压缩；仅按 rank 合并时，树的高度为 O(log n)。
+ */
+public class RollbackUnionFind implements UnionFind {
+
+    /**
+     * 存储各个元素的父节点 id
+     */
+    private int[] parentId;
+    /**
+     * 存储每个集合对应树的高度
+     */
+    private int[] rank;
+
+    /**
+     * 合并记录栈，每次合并记录被修改的根顶点。若合并时 rank 增加了，则记录 ~child（负数），撤销时需要将父节点的 rank 减 1
+     */
+    private int[] history;
+    private int historySize;
+
+    /**
+     * 集合的个数
+     */
+    private int count;
+
+    public RollbackUnionFind(int[] data) {
+        parentId = new int[data.length];
+        rank = new int[data.length];
+        history = new int[16];
+
+        // 初始时，每个元素所属的集合都不一样
+        for (int i = 0; i < data.length; ++i) {
+            parentId[i] = i;
+            rank[i] = 1;
+        }
+        count = data.length;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int pId = find(p);
+        int qId = find(q);
+        if (pId == qId) {
+            return;
+        }
+
+        // 根据树的高度进行合并（将低的树合并到高的树里面），保证 qId 为较低的树
+        if (rank[pId] < rank[qId]) {
+            int temp = pId;
+            pId = qId;
+            qId = temp;
+        }
+        parentId[qId] = pId;
+        boolean increased = rank[pId] == rank[qId];
+        if (increased) {
+            ++rank[pId];
+        }
+        --count;
+
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+        }
+        history[historySize++] = increased ? ~qId : qId;
+    }
+
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int size() {
+        return parentId.length;
+    }
+
+    /**
+     * @return 集合的个数
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 获取当前的检查点，之后可以通过 rollback 回滚到该检查点
+     * @return 检查点（即到目前为止成功合并的次数）
+     */
+    public int checkpoint() {
+        return historySize;
+    }
+
+    /**
+     * 撤销检查点之后的所有合并
+     * @param checkpoint 通过 checkpoint() 获取的检查点
+     */
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > historySize) {
+            throw new IllegalArgumentException("Illegal checkpoint!");
+        }
+
+        while (historySize > checkpoint) {
+            int child = history[--historySize];
+            if (child < 0) {
+                child = ~child;
+                --rank[parentId[child]];
+            }
+            parentId[child] = child;
+            ++count;
+        }
+    }
+
+    /**
+     * 寻找 index 处的元素所属的集合 id，实际上也就是树的根顶点
+     * @param index 索引
+     * @return 返回 index 处元素的集合 id
+     */
+    private int find(int index) {
+        if (index < 0 || index >= parentId.length) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        // 不进行路径压缩，以便撤销合并
+        while (parentId[index] != index) {
+            index = parentId[index];
+        }
+        return index;
+    }
+}
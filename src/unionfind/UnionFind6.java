@@ -75,13 +75,19 @@ public class UnionFind6 implements UnionFind {
             throw new IllegalArgumentException("Illegal index!");
         }
 
-        if (isRoot(index)) {
-            return index;
+        // 第一遍：寻找根顶点（使用迭代而非递归，避免树很高时栈溢出）
+        int root = index;
+        while (!isRoot(root)) {
+            root = parentId[root];
         }
-        
-        // 不是根顶点，则寻找 index 的根顶点，并且让当前节点指向找到的根顶点
-        parentId[index] = find(parentId[index]);
 
-        return parentId[index]; // 返回的即为根顶点
+        // 第二遍：让路径上的所有节点都直接指向根顶点
+        while (index != root) {
+            int parent = parentId[index];
+            parentId[index] = root;
+            index = parent;
+        }
+
+        return root;
     }
 }
@@ -0,0 +1,101 @@
+package unionfind;
+
+/**
+ * 并查集 v7，基于树实现（按集合大小合并、路径压缩）
+ * 在树中，子节点指向父节点。并且，树的根顶点代表这棵树对应的元素集合的 id。
+ *
+ * 与 UnionFind6 相比：
+ *  （1）只使用一个数组 parent：parent[i] >= 0 时表示元素 i 的父节点；parent[i] < 0 时表示 i 是根顶点，并且 -parent[i] 为该集合的大小。
+ *      相比 parentId、rank 两个数组，节省了一半的内存，合并时访问的数据也在同一个数组中
+ *  （2）按集合的大小合并（将小的集合合并到大的集合里面），并且可以直接查询集合的大小
+ *  （3）查找时使用迭代的路径分裂（让路径上的每个节点都指向其祖父节点），只需遍历一遍路径，并且不会因为递归过深而栈溢出
+ *  （4）维护集合的个数
+ */
+public class UnionFind7 implements UnionFind {
+
+    /**
+     * 对于非根顶点，存储其父节点 id；对于根顶点，存储其集合大小的相反数
+     */
+    private int[] parent;
+
+    /**
+     * 集合的个数
+     */
+    private int count;
+
+    public UnionFind7(int[] data) {
+        parent = new int[data.length];
+
+        // 初始时，每个元素所属的集合都不一样，并且每个集合的大小均为 1
+        for (int i = 0; i < data.length; ++i) {
+            parent[i] = -1;
+        }
+        count = data.length;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int pId = find(p);
+        int qId = find(q);
+        if (pId == qId) {
+            return;
+        }
+
+        // 根据集合的大小进行合并（将小的集合合并到大的集合里面）。parent 中存储的是大小的相反数，因此值越小，集合越大
+        if (parent[pId] > parent[qId]) {
+            int temp = pId;
+            pId = qId;
+            qId = temp;
+        }
+        parent[pId] += parent[qId]; // pId 为较大集合的根顶点，合并后的大小为两个集合大小之和
+        parent[qId] = pId;
+        --count;
+    }
+
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * @return 集合的个数
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 获取 p 所属集合的大小
+     * @param p 元素的索引
+     * @return p 所属集合中元素的个数
+     */
+    public int sizeOf(int p) {
+        return -parent[find(p)];
+    }
+
+    /**
+     * 寻找 index 处的元素所属的集合 id，实际上也就是树的根顶点
+     * @param index 索引
+     * @return 返回 index 处元素的集合 id
+     */
+    private int find(int index) {
+        if (index < 0 || index >= parent.length) {
+            throw new IllegalArgumentException("Illegal index!");
+        }
+
+        // 路径分裂：让路径上的每个节点都指向其祖父节点
+        while (parent[index] >= 0) {
+            int next = parent[index];
+            if (parent[next] >= 0) {
+                parent[index] = parent[next];
+            }
+            index = next;
+        }
+        return index;
+    }
+}
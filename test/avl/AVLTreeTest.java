@@ -0,0 +1,159 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将 AVLTree 与 TreeMap 进行随机对比，并检查 AVL 树的性质
+ */
+public class AVLTreeTest {
+
+    @Test
+    public void randomOperationsKeepInvariants() throws Exception {
+        Random random = new Random(8);
+        AVLTree<Integer, Integer> tree = new AVLTree<Integer, Integer>();
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+
+        for (int i = 0; i < 200000; ++i) {
+            int range = i < 100000 ? 2000 : 200; // 后半段键的范围变小，删除更多
+            int key = random.nextInt(range);
+            if (random.nextInt(3) > 0) {
+                tree.put(key, i);
+                expected.put(key, i);
+            } else if (!tree.isEmpty()) { // 空树删除会抛出异常
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+
+            int query = random.nextInt(range);
+            assertEquals(expected.get(query), tree.get(query));
+            assertEquals(expected.size(), tree.size());
+            if (0 == i % 97) {
+                checkInvariants(tree);
+            }
+        }
+    }
+
+    @Test
+    public void sequentialInsertAndDrain() throws Exception {
+        AVLTree<Integer, Integer> tree = new AVLTree<Integer, Integer>();
+        for (int key = 0; key < 50000; ++key) {
+            tree.put(key, key);
+        }
+        for (int key = 0; key < 50000; key += 2) {
+            tree.remove(key);
+        }
+        checkInvariants(tree);
+
+        for (int key = 1; key < 50000; key += 2) {
+            tree.remove(key);
+        }
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void navigationMatchesTreeMap() {
+        Random random = new Random(2);
+        AVLTree<Integer, Integer> tree = new AVLTree<Integer, Integer>();
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+        for (int i = 0; i < 3000; ++i) {
+            int key = random.nextInt(10000);
+            tree.put(key, i);
+            expected.put(key, i);
+        }
+
+        for (int i = 0; i < 3000; ++i) {
+            int key = random.nextInt(10200) - 100;
+            assertEquals(expected.floorKey(key), tree.floor(key));
+            assertEquals(expected.ceilingKey(key), tree.ceiling(key));
+            assertEquals(expected.lowerKey(key), tree.lower(key));
+            assertEquals(expected.higherKey(key), tree.higher(key));
+            assertEquals(expected.headMap(key).size(), tree.rank(key));
+        }
+
+        int index = 0;
+        for (Integer key : expected.keySet()) {
+            assertEquals(key, tree.select(index++));
+        }
+
+        Iterator<Entry<Integer, Integer>> iterator = tree.subMap(2000, 5000);
+        for (Entry<Integer, Integer> entry : expected.subMap(2000, true, 5000, false).entrySet()) {
+            assertTrue(iterator.hasNext());
+            Entry<Integer, Integer> actual = iterator.next();
+            assertEquals(entry.getKey(), actual.getKey());
+            assertEquals(entry.getValue(), actual.getValue());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void bulkLoadBuildsValidTree() throws Exception {
+        for (int n : new int[] { 0, 1, 2, 3, 7, 8, 100, 12345 }) {
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; ++i) {
+                keys[i] = 2 * i;
+            }
+
+            for (AVLTree<Integer, Integer> tree : new AVLTree[] { AVLTree.bulkLoad(keys, keys),
+                    AVLTree.parallelBulkLoad(keys, keys) }) {
+                assertEquals(n, tree.size());
+                checkInvariants(tree);
+                for (int i = 0; i < n; ++i) {
+                    assertEquals(keys[i], tree.get(2 * i));
+                }
+
+                // 批量构建的树依然可以正常修改
+                tree.put(-1, -1);
+                tree.remove(-1);
+                checkInvariants(tree);
+            }
+        }
+    }
+
+    /**
+     * 检查：二分搜索树的顺序、count 字段、height 字段，以及左右子树的高度至多相差 1
+     */
+    static void checkInvariants(AVLTree<Integer, Integer> tree) throws Exception {
+        check(field(tree, "root"), null, null);
+    }
+
+    private static int check(Object node, Integer low, Integer high) throws Exception {
+        if (null == node) {
+            return 0;
+        }
+
+        Integer key = (Integer) field(node, "key");
+        assertTrue(null == low || key > low, "order");
+        assertTrue(null == high || key < high, "order");
+
+        Object left = field(node, "left");
+        Object right = field(node, "right");
+        int count = (Integer) field(node, "count");
+        assertEquals(count(left) + count(right) + 1, count, "count");
+
+        int leftHeight = check(left, low, key);
+        int rightHeight = check(right, key, high);
+        assertTrue(Math.abs(leftHeight - rightHeight) <= 1, "balance");
+        int height = Math.max(leftHeight, rightHeight) + 1;
+        assertEquals(height, (int) (Integer) field(node, "height"), "height");
+        return height;
+    }
+
+    private static int count(Object node) throws Exception {
+        return null == node ? 0 : (Integer) field(node, "count");
+    }
+
+    private static Object field(Object object, String name) throws Exception {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(object);
+    }
+}
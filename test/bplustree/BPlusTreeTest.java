@@ -0,0 +1,95 @@
+package bplustree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将 BPlusTree 与 TreeMap 进行随机对比
+ */
+public class BPlusTreeTest {
+
+    @Test
+    public void randomOperationsMatchTreeMap() {
+        for (int order : new int[] { 4, 5, 32 }) {
+            Random random = new Random(order);
+            BPlusTree<Integer, Integer> tree = new BPlusTree<Integer, Integer>(order);
+            TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+            for (int i = 0; i < 100000; ++i) {
+                int range = i < 50000 ? 5000 : 300; // 后半段键的范围变小，删除更多，触发节点合并
+                int key = random.nextInt(range);
+                if (random.nextInt(3) > 0) {
+                    tree.put(key, i);
+                    expected.put(key, i);
+                } else if (!tree.isEmpty()) { // 空树删除会抛出异常
+                    assertEquals(expected.remove(key), tree.remove(key));
+                }
+
+                int query = random.nextInt(range);
+                assertEquals(expected.get(query), tree.get(query));
+                assertEquals(expected.containsKey(query), tree.contains(query));
+                assertEquals(expected.size(), tree.size());
+                if (0 == i % 1000) {
+                    checkRange(tree, expected, random.nextInt(range), random.nextInt(range));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bulkLoadMatchesTreeMap() {
+        for (int n : new int[] { 0, 1, 2, 3, 7, 8, 100, 12345 }) {
+            for (int order : new int[] { 4, 5, 64 }) {
+                Integer[] keys = new Integer[n];
+                TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+                for (int i = 0; i < n; ++i) {
+                    keys[i] = 3 * i;
+                    expected.put(keys[i], keys[i]);
+                }
+
+                BPlusTree<Integer, Integer> tree = BPlusTree.bulkLoad(keys, keys, order);
+                assertEquals(n, tree.size());
+                checkRange(tree, expected, -1, 3 * n + 1);
+
+                // 批量构建的树依然可以正常修改
+                for (int i = 0; i < n; i += 2) {
+                    assertEquals(keys[i], tree.remove(keys[i]));
+                    expected.remove(keys[i]);
+                }
+                for (int i = 0; i < n; ++i) {
+                    tree.put(3 * i + 1, i);
+                    expected.put(3 * i + 1, i);
+                }
+                checkRange(tree, expected, -1, 3 * n + 1);
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BPlusTree.bulkLoad(new Integer[] { 2, 1 }, new Integer[] { 0, 0 }));
+    }
+
+    private static void checkRange(BPlusTree<Integer, Integer> tree, TreeMap<Integer, Integer> expected, int x, int y) {
+        int from = Math.min(x, y);
+        int to = Math.max(x, y);
+        List<Integer> actual = new ArrayList<Integer>();
+        tree.range(from, to, (key, value) -> {
+            actual.add(key);
+            actual.add(value);
+        });
+
+        List<Integer> entries = new ArrayList<Integer>();
+        expected.subMap(from, to).forEach((key, value) -> {
+            entries.add(key);
+            entries.add(value);
+        });
+        assertEquals(entries, actual);
+        assertTrue(actual.size() <= 2 * tree.size());
+    }
+}
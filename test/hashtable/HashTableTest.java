@@ -0,0 +1,157 @@
+package hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将各个哈希表与 HashMap 进行随机对比
+ */
+public class HashTableTest {
+
+    @Test
+    public void openHashTable() {
+        check(new OpenHashTable<Integer, Integer>(), 1);
+        check(new OpenHashTable<Integer, Integer>(1000), 2);
+    }
+
+    @Test
+    public void linkedHashTable() {
+        check(new LinkedHashTable<Integer, Integer>(), 3);
+        check(new LinkedHashTable<Integer, Integer>(true), 4);
+    }
+
+    @Test
+    public void treeHashTable() {
+        check(new TreeHashTable<Integer, Integer>(), 5);
+        check(new TreeHashTable<Integer, Integer>(true), 6);
+    }
+
+    /**
+     * 在扩容阈值附近交替 put/remove，容量不应该来回变化
+     */
+    @Test
+    public void noResizeThrashingAtThreshold() throws Exception {
+        for (boolean incremental : new boolean[] { false, true }) {
+            checkNoThrashing(new LinkedHashTable<Integer, Integer>(incremental));
+            checkNoThrashing(new TreeHashTable<Integer, Integer>(incremental));
+        }
+    }
+
+    @Test
+    public void concurrentHashTable() {
+        check(new ConcurrentHashTable<Integer, Integer>(), 7);
+    }
+
+    @Test
+    public void intIntHashTable() {
+        Random random = new Random(8);
+        IntIntHashTable table = new IntIntHashTable();
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 200000; ++i) {
+            int key = random.nextInt(i < 100000 ? 50000 : 500) - 100; // 包含 0 以及负数
+            if (random.nextInt(3) > 0) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(null != expected.remove(key), table.remove(key));
+            }
+
+            int query = random.nextInt(50000) - 100;
+            assertEquals(expected.containsKey(query), table.contains(query));
+            assertEquals(expected.getOrDefault(query, -1).intValue(), table.getOrDefault(query, -1));
+            assertEquals(expected.size(), table.size());
+        }
+
+        table.put(0, 42);
+        assertEquals(42, table.get(0));
+        assertTrue(table.remove(0));
+        assertThrows(IllegalArgumentException.class, () -> table.get(0));
+    }
+
+    @Test
+    public void longLongHashTable() {
+        Random random = new Random(9);
+        LongLongHashTable table = new LongLongHashTable(16);
+        HashMap<Long, Long> expected = new HashMap<Long, Long>();
+        for (int i = 0; i < 200000; ++i) {
+            long key = (random.nextInt(i < 100000 ? 50000 : 500) - 100) * 0x100000000L; // 低 32 位全部相同
+            if (random.nextInt(3) > 0) {
+                table.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                assertEquals(null != expected.remove(key), table.remove(key));
+            }
+
+            long query = (random.nextInt(50000) - 100) * 0x100000000L;
+            assertEquals(expected.containsKey(query), table.contains(query));
+            assertEquals(expected.getOrDefault(query, -1L).longValue(), table.getOrDefault(query, -1L));
+            assertEquals(expected.size(), table.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> table.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void tableSizeForIsClamped() {
+        assertEquals(OpenHashTable.MAXIMUM_CAPACITY, OpenHashTable.tableSizeFor(Integer.MAX_VALUE));
+        assertEquals(OpenHashTable.MAXIMUM_CAPACITY, OpenHashTable.tableSizeFor(OpenHashTable.MAXIMUM_CAPACITY));
+        assertEquals(1024, OpenHashTable.tableSizeFor(1000));
+    }
+
+    private static void checkNoThrashing(HashTable<Integer, Integer> table) throws Exception {
+        Field capacity = table.getClass().getDeclaredField("capacity");
+        capacity.setAccessible(true);
+
+        // 从 193 扩容到 389 时，元素个数为 2 * 193 = 386，不超过 389，只按当前容量计算缩容下限时，删除一个元素就会缩容
+        int key = 0;
+        while ((Integer) capacity.get(table) < 389) {
+            table.put(key++, 0);
+        }
+        int grown = (Integer) capacity.get(table);
+        for (int i = 0; i < 1000; ++i) {
+            table.remove(--key);
+            assertEquals(grown, (int) (Integer) capacity.get(table));
+            table.put(key++, 0);
+            assertEquals(grown, (int) (Integer) capacity.get(table));
+        }
+    }
+
+    /**
+     * 随机插入、删除、查询，并与 HashMap 的结果对比。后半段键的范围变小，会触发缩容
+     */
+    private static void check(HashTable<Integer, Integer> table, long seed) {
+        Random random = new Random(seed);
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 200000; ++i) {
+            int range = i < 100000 ? 50000 : 500;
+            Integer key = random.nextInt(range) << 10; // 低位相同的键，制造哈希冲突
+            if (random.nextInt(3) > 0) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else if (table.contains(key)) {
+                assertEquals(expected.remove(key), table.remove(key));
+            } else {
+                assertFalse(expected.containsKey(key));
+            }
+
+            Integer query = random.nextInt(range) << 10;
+            assertEquals(expected.containsKey(query), table.contains(query));
+            if (expected.containsKey(query)) {
+                assertEquals(expected.get(query), table.get(query));
+            }
+            assertEquals(expected.size(), table.size());
+        }
+
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), table.remove(key));
+        }
+        assertTrue(table.isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将 BSTMap 与 TreeMap 进行随机对比
+ */
+public class BSTMapTest {
+
+    @Test
+    public void randomOperationsMatchTreeMap() {
+        Random random = new Random(1);
+        BSTMap<Integer, Integer> map = new BSTMap<Integer, Integer>();
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+        for (int i = 0; i < 100000; ++i) {
+            int key = random.nextInt(i < 50000 ? 3000 : 300);
+            if (random.nextInt(3) > 0) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else if (!map.isEmpty()) { // 空树删除会抛出异常
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+
+            int query = random.nextInt(3000);
+            assertEquals(expected.get(query), map.get(query));
+            assertEquals(expected.containsKey(query), map.contains(query));
+            assertEquals(expected.size(), map.size());
+        }
+    }
+
+    @Test
+    public void bulkLoadMatchesTreeMap() {
+        for (int n : new int[] { 0, 1, 2, 3, 7, 8, 100, 12345 }) {
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; ++i) {
+                keys[i] = 2 * i;
+            }
+
+            for (BSTMap<Integer, Integer> map : new BSTMap[] { BSTMap.bulkLoad(keys, keys),
+                    BSTMap.parallelBulkLoad(keys, keys) }) {
+                assertEquals(n, map.size());
+                for (int i = 0; i < n; ++i) {
+                    assertEquals(keys[i], map.get(2 * i));
+                    assertEquals(null, map.get(2 * i + 1));
+                }
+                for (int i = 0; i < n; ++i) {
+                    assertEquals(keys[i], map.remove(2 * i));
+                }
+                assertTrue(map.isEmpty());
+            }
+        }
+    }
+}
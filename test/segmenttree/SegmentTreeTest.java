@@ -0,0 +1,215 @@
+package segmenttree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将各个线段树与逐个元素计算的结果进行随机对比
+ */
+public class SegmentTreeTest {
+
+    /**
+     * 使用字符串拼接作为合并操作（不满足交换律），检查批量查询合并子区间的顺序
+     */
+    @Test
+    public void batchQueryMatchesSingleQuery() {
+        Random random = new Random(1);
+        for (int round = 0; round < 1000; ++round) {
+            int n = 1 + random.nextInt(round < 700 ? 40 : 300);
+            String[] arr = new String[n];
+            for (int i = 0; i < n; ++i) {
+                arr[i] = i + ",";
+            }
+            SegmentTree<String> tree = new SegmentTree<String>(arr, (a, b) -> a + b);
+
+            int q = random.nextInt(round < 700 ? 60 : 3000);
+            int[] lefts = new int[q];
+            int[] rights = new int[q];
+            for (int i = 0; i < q; ++i) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                lefts[i] = Math.min(x, y);
+                rights[i] = Math.max(x, y);
+            }
+
+            String[] results = new String[q];
+            String[] parallelResults = new String[q];
+            tree.query(lefts, rights, results);
+            tree.parallelQuery(lefts, rights, parallelResults);
+            for (int i = 0; i < q; ++i) {
+                String expected = tree.query(lefts[i], rights[i]);
+                assertEquals(expected, results[i]);
+                assertEquals(expected, parallelResults[i]);
+            }
+
+            // 更新之后再次查询，检查批量查询没有残留上一次的状态
+            int index = random.nextInt(n);
+            tree.update(index, "x,");
+            tree.query(lefts, rights, results);
+            for (int i = 0; i < q; ++i) {
+                assertEquals(tree.query(lefts[i], rights[i]), results[i]);
+            }
+        }
+    }
+
+    @Test
+    public void primitiveSegmentTrees() {
+        Random random = new Random(2);
+        int n = 1000;
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; ++i) {
+            ints[i] = random.nextInt(2000) - 1000;
+            longs[i] = ints[i] * 10000000000L;
+            doubles[i] = ints[i] / 8.0;
+        }
+
+        IntSegmentTree intSum = IntSegmentTree.sum(ints);
+        IntSegmentTree intMin = IntSegmentTree.min(ints);
+        LongSegmentTree longMax = LongSegmentTree.max(longs);
+        DoubleSegmentTree doubleSum = DoubleSegmentTree.sum(doubles);
+        for (int round = 0; round < 20000; ++round) {
+            int index = random.nextInt(n);
+            int value = random.nextInt(2000) - 1000;
+            ints[index] = value;
+            longs[index] = value * 10000000000L;
+            doubles[index] = value / 8.0;
+            intSum.update(index, ints[index]);
+            intMin.update(index, ints[index]);
+            longMax.update(index, longs[index]);
+            doubleSum.update(index, doubles[index]);
+
+            int x = random.nextInt(n);
+            int y = random.nextInt(n);
+            int l = Math.min(x, y);
+            int r = Math.max(x, y);
+            int sum = 0;
+            int min = Integer.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            double doubleTotal = 0;
+            for (int i = l; i <= r; ++i) {
+                sum += ints[i];
+                min = Math.min(min, ints[i]);
+                max = Math.max(max, longs[i]);
+                doubleTotal += doubles[i];
+            }
+            assertEquals(sum, intSum.query(l, r));
+            assertEquals(min, intMin.query(l, r));
+            assertEquals(max, longMax.query(l, r));
+            assertEquals(doubleTotal, doubleSum.query(l, r), 1e-9); // 各个元素都是 1/8 的整数倍，求和没有误差
+            assertEquals(ints[index], intSum.get(index));
+        }
+    }
+
+    @Test
+    public void lazySegmentTree() {
+        Random random = new Random(3);
+        int n = 300;
+        long[] expected = new long[n];
+        Long[] arr = new Long[n];
+        for (int i = 0; i < n; ++i) {
+            expected[i] = random.nextInt(100);
+            arr[i] = expected[i];
+        }
+
+        LazySegmentTree<Long> tree = new LazySegmentTree<Long>(arr, (a, b) -> a + b, new Updater<Long>() {
+            @Override
+            public Long add(Long value, Long delta, int length) {
+                return value + delta * length;
+            }
+
+            @Override
+            public Long assign(Long e, int length) {
+                return e * length;
+            }
+
+            @Override
+            public Long combine(Long delta1, Long delta2) {
+                return delta1 + delta2;
+            }
+        });
+
+        for (int round = 0; round < 20000; ++round) {
+            int x = random.nextInt(n);
+            int y = random.nextInt(n);
+            int l = Math.min(x, y);
+            int r = Math.max(x, y);
+            long value = random.nextInt(100) - 50;
+            switch (random.nextInt(4)) {
+            case 0:
+                tree.add(l, r, value);
+                for (int i = l; i <= r; ++i) {
+                    expected[i] += value;
+                }
+                break;
+            case 1:
+                tree.assign(l, r, value);
+                for (int i = l; i <= r; ++i) {
+                    expected[i] = value;
+                }
+                break;
+            case 2:
+                tree.update(l, value);
+                expected[l] = value;
+                break;
+            default:
+                long sum = 0;
+                for (int i = l; i <= r; ++i) {
+                    sum += expected[i];
+                }
+                assertEquals(sum, (long) tree.query(l, r));
+                assertEquals(expected[r], (long) tree.get(r));
+            }
+        }
+    }
+
+    @Test
+    public void persistentSegmentTree() {
+        Random random = new Random(4);
+        int n = 50;
+        Integer[] arr = new Integer[n];
+        int[] initial = new int[n];
+        for (int i = 0; i < n; ++i) {
+            arr[i] = random.nextInt(100);
+            initial[i] = arr[i];
+        }
+
+        PersistentSegmentTree<Integer> tree = new PersistentSegmentTree<Integer>(arr, (a, b) -> a + b);
+        Map<Integer, int[]> versions = new HashMap<Integer, int[]>();
+        versions.put(0, initial);
+        for (int round = 0; round < 50000; ++round) {
+            List<Integer> live = new ArrayList<Integer>(versions.keySet());
+            int version = live.get(random.nextInt(live.size()));
+            int op = random.nextInt(3);
+            if (0 == op) {
+                int index = random.nextInt(n);
+                int value = random.nextInt(100);
+                int[] values = versions.get(version).clone();
+                values[index] = value;
+                versions.put(tree.update(version, index, value), values);
+            } else if (1 == op && version != tree.latestVersion()) {
+                tree.retire(version);
+                versions.remove(version);
+                final int retired = version;
+                assertThrows(IllegalArgumentException.class, () -> tree.query(retired, 0, 0));
+            } else {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                int sum = 0;
+                for (int i = Math.min(x, y); i <= Math.max(x, y); ++i) {
+                    sum += versions.get(version)[i];
+                }
+                assertEquals(sum, (int) tree.query(version, Math.min(x, y), Math.max(x, y)));
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package trie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 将各个字典树与 HashSet / 正则表达式 / 暴力匹配的结果进行随机对比
+ */
+public class TrieTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void frozenAndRadixTriesMatchTrie() throws Exception {
+        Random random = new Random(1);
+        for (int round = 0; round < 50; ++round) {
+            int alphabet = 0 == round % 10 ? 3000 : 2 + random.nextInt(6);
+            char base = alphabet > 26 ? (char) 0x4e00 : 'a';
+            Trie trie = new Trie();
+            RadixTrie radix = new RadixTrie();
+            ConcurrentTrie concurrent = new ConcurrentTrie();
+            Set<String> words = new HashSet<String>();
+            for (int i = random.nextInt(2000); i > 0; --i) {
+                String word = randomWord(random, 1, 8, alphabet, base);
+                trie.add(word);
+                radix.add(word);
+                concurrent.add(word);
+                words.add(word);
+            }
+
+            FrozenTrie frozen = trie.freeze();
+            File file = new File(tempDir, "trie" + round);
+            frozen.save(file);
+            MappedTrie mapped = MappedTrie.open(file);
+            ConcurrentTrie snapshot = concurrent.snapshot();
+            concurrent.add(randomWord(random, 9, 9, alphabet, base)); // 快照不受之后的修改影响
+
+            assertEquals(trie.size(), frozen.size()); // Trie 的 size 包含重复添加的单词
+            assertEquals(trie.size(), mapped.size());
+            assertEquals(words.size(), radix.size());
+            assertEquals(words.size(), snapshot.size());
+            assertEquals(new ArrayList<String>(new TreeSet<String>(words)), snapshot.words());
+
+            for (int i = 0; i < 2000; ++i) {
+                String word = randomWord(random, 0, 8, alphabet, base);
+                boolean contains = words.contains(word);
+                boolean isPrefix = trie.isPrefix(word);
+                assertEquals(contains, trie.contains(word));
+                assertEquals(contains, frozen.contains(word));
+                assertEquals(contains, mapped.contains(word));
+                assertEquals(contains, radix.contains(word));
+                assertEquals(contains, snapshot.contains(word));
+                assertEquals(isPrefix, frozen.isPrefix(word));
+                assertEquals(isPrefix, mapped.isPrefix(word));
+                assertEquals(isPrefix, radix.isPrefix(word));
+                assertEquals(isPrefix, snapshot.isPrefix(word));
+            }
+        }
+    }
+
+    @Test
+    public void matchAllMatchesRegex() {
+        Random random = new Random(2);
+        for (int round = 0; round < 1000; ++round) {
+            Trie trie = new Trie();
+            RadixTrie radix = new RadixTrie();
+            List<String> words = new ArrayList<String>();
+            for (int i = random.nextInt(30); i > 0; --i) {
+                String word = randomWord(random, 0, 6, 3, 'a');
+                trie.add(word);
+                radix.add(word);
+                words.add(word);
+            }
+
+            String[] patterns = new String[1 + random.nextInt(20)];
+            for (int i = 0; i < patterns.length; ++i) {
+                patterns[i] = randomPattern(random);
+            }
+            boolean[] matched = trie.matchAll(patterns);
+            for (int i = 0; i < patterns.length; ++i) {
+                assertEquals(anyMatches(words, patterns[i]), matched[i], patterns[i]);
+            }
+
+            // match 只支持 “.”
+            String dots = randomWord(random, 0, 6, 4, 'a').replace('d', '.');
+            assertEquals(anyMatches(words, dots), trie.match(dots), dots);
+            assertEquals(anyMatches(words, dots), radix.match(dots), dots);
+        }
+    }
+
+    @Test
+    public void topKMatchesSortedScores() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; ++round) {
+            int cacheSize = 1 + random.nextInt(5);
+            Trie trie = new Trie(cacheSize);
+            Map<String, Integer> scores = new HashMap<String, Integer>();
+            for (int i = 0; i < 1000; ++i) {
+                String word = randomWord(random, 0, 4, 3, 'a');
+                if (0 == random.nextInt(8)) {
+                    trie.add(word); // 不带分数的单词不参与补全
+                } else {
+                    int score = random.nextInt(20);
+                    trie.add(word, score);
+                    scores.put(word, score);
+                }
+
+                String prefix = randomWord(random, 0, 2, 3, 'a');
+                int k = random.nextInt(cacheSize + 1);
+                List<String> expected = new ArrayList<String>();
+                for (String s : scores.keySet()) {
+                    if (s.startsWith(prefix)) {
+                        expected.add(s);
+                    }
+                }
+                expected.sort((a, b) -> !scores.get(a).equals(scores.get(b))
+                        ? Integer.compare(scores.get(b), scores.get(a)) : a.compareTo(b));
+                assertEquals(expected.subList(0, Math.min(k, expected.size())), trie.topK(prefix, k));
+            }
+        }
+    }
+
+    @Test
+    public void ahoCorasickFindsAllOccurrences() throws Exception {
+        Random random = new Random(4);
+        for (int round = 0; round < 300; ++round) {
+            // 少数几轮使用很大的字符集，使状态数 × 字符集大小超过稠密转移表的上限
+            boolean large = round < 3;
+            int alphabet = large ? 4000 : 1 + random.nextInt(5);
+            char base = large ? (char) 0x4e00 : 'a';
+            Trie trie = new Trie();
+            Set<String> words = new HashSet<String>();
+            for (int i = large ? 3000 : random.nextInt(40); i > 0; --i) {
+                String word = randomWord(random, 1, 5, alphabet, base);
+                trie.add(word);
+                words.add(word);
+            }
+            AhoCorasick automaton = trie.toAhoCorasick();
+
+            StringBuilder builder = new StringBuilder();
+            for (int i = large ? 20000 : 300; i > 0; --i) {
+                builder.append(0 == random.nextInt(10) ? '#' : (char) (base + random.nextInt(alphabet)));
+            }
+            String text = builder.toString();
+
+            List<String> expected = new ArrayList<String>();
+            for (int end = 1; end <= text.length(); ++end) {
+                for (int begin = Math.max(0, end - 5); begin < end; ++begin) {
+                    if (words.contains(text.substring(begin, end))) {
+                        expected.add(begin + ":" + text.substring(begin, end));
+                    }
+                }
+            }
+
+            List<String> found = new ArrayList<String>();
+            automaton.scan(text, (end, word) -> found.add((end - word.length()) + ":" + word));
+            expected.sort(null);
+            found.sort(null);
+            assertEquals(expected, found);
+
+            List<String> streamed = new ArrayList<String>();
+            automaton.scan(new StringReader(text), (end, word) -> streamed.add((end - word.length()) + ":" + word));
+            streamed.sort(null);
+            assertEquals(expected, streamed);
+            assertEquals(expected.size(), automaton.findAll(text).size());
+        }
+    }
+
+    @Test
+    public void emptyTrie() throws Exception {
+        FrozenTrie frozen = new Trie().freeze();
+        assertEquals(0, frozen.size());
+        assertFalse(frozen.contains("a"));
+        assertEquals(0, new Trie().toAhoCorasick().findAll("abc").size());
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength, int alphabet, char base) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = minLength + random.nextInt(maxLength - minLength + 1); i > 0; --i) {
+            builder.append((char) (base + random.nextInt(alphabet)));
+        }
+        return builder.toString();
+    }
+
+    private static String randomPattern(Random random) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(6); i > 0; --i) {
+            int kind = random.nextInt(7);
+            if (0 == kind) {
+                builder.append('.');
+            } else if (1 == kind) {
+                builder.append('*');
+            } else if (2 == kind) {
+                builder.append(random.nextBoolean() ? "[ab]" : "[^a]");
+            } else {
+                builder.append((char) ('a' + random.nextInt(3)));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean anyMatches(List<String> words, String pattern) {
+        Pattern regex = Pattern.compile(pattern.replace(".", "[a-z]").replace("*", "[a-z]*"));
+        for (String word : words) {
+            if (regex.matcher(word).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,207 @@
+package unionfind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 将各个并查集与暴力维护集合编号的结果进行随机对比
+ */
+public class UnionFindTest {
+
+    @Test
+    public void unionFindsMatchBruteForce() {
+        Random random = new Random(1);
+        int n = 500;
+        UnionFind7 unionFind = new UnionFind7(new int[n]);
+        GrowableUnionFind growable = new GrowableUnionFind();
+        KeyedUnionFind<String> keyed = new KeyedUnionFind<String>();
+        ConcurrentUnionFind concurrent = new ConcurrentUnionFind(new int[n]);
+        for (int i = 0; i < n; ++i) {
+            assertEquals(i, growable.add());
+            keyed.add("e" + i);
+        }
+
+        BruteForce expected = new BruteForce(n);
+        for (int round = 0; round < 3000; ++round) {
+            int p = random.nextInt(n);
+            int q = random.nextInt(n);
+            if (random.nextBoolean()) {
+                unionFind.union(p, q);
+                growable.union(p, q);
+                keyed.union("e" + p, "e" + q);
+                concurrent.union(p, q);
+                expected.union(p, q);
+            }
+
+            boolean connected = expected.isConnected(p, q);
+            assertEquals(connected, unionFind.isConnected(p, q));
+            assertEquals(connected, growable.isConnected(p, q));
+            assertEquals(connected, keyed.isConnected("e" + p, "e" + q));
+            assertEquals(connected, concurrent.isConnected(p, q));
+            assertEquals(expected.count(), unionFind.count());
+            assertEquals(expected.sizeOf(p), unionFind.sizeOf(p));
+        }
+        assertTrue(keyed.contains("e0"));
+        assertFalse(keyed.contains("x"));
+    }
+
+    @Test
+    public void unionAllMatchesSequentialUnion() {
+        Random random = new Random(2);
+        for (int n : new int[] { 1, 10, 1000, 100000 }) {
+            int m = 2 * n;
+            int[] ps = new int[m];
+            int[] qs = new int[m];
+            for (int i = 0; i < m; ++i) {
+                ps[i] = random.nextInt(n);
+                qs[i] = random.nextInt(Math.max(1, n / 3)); // 让一部分元素形成较大的集合
+            }
+
+            ConcurrentUnionFind concurrent = new ConcurrentUnionFind(new int[n]);
+            concurrent.unionAll(ps, qs);
+            UnionFind7 expected = new UnionFind7(new int[n]);
+            for (int i = 0; i < m; ++i) {
+                expected.union(ps[i], qs[i]);
+            }
+
+            int[] labels = concurrent.componentLabels();
+            for (int i = 0; i < 5000; ++i) {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                assertEquals(expected.isConnected(p, q), labels[p] == labels[q]);
+                assertEquals(expected.isConnected(p, q), concurrent.isConnected(p, q));
+            }
+        }
+    }
+
+    @Test
+    public void rollbackRestoresCheckpoint() {
+        Random random = new Random(3);
+        int n = 200;
+        RollbackUnionFind unionFind = new RollbackUnionFind(new int[n]);
+        List<BruteForce> states = new ArrayList<BruteForce>();
+        List<Integer> checkpoints = new ArrayList<Integer>();
+        BruteForce expected = new BruteForce(n);
+        for (int round = 0; round < 5000; ++round) {
+            int op = random.nextInt(10);
+            if (0 == op) {
+                checkpoints.add(unionFind.checkpoint());
+                states.add(expected.copy());
+            } else if (1 == op && !checkpoints.isEmpty()) {
+                int index = random.nextInt(checkpoints.size());
+                unionFind.rollback(checkpoints.get(index));
+                expected = states.get(index).copy();
+                checkpoints.subList(index + 1, checkpoints.size()).clear();
+                states.subList(index + 1, states.size()).clear();
+            } else {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                unionFind.union(p, q);
+                expected.union(p, q);
+            }
+
+            int p = random.nextInt(n);
+            int q = random.nextInt(n);
+            assertEquals(expected.isConnected(p, q), unionFind.isConnected(p, q));
+            assertEquals(expected.count(), unionFind.count());
+        }
+    }
+
+    @Test
+    public void dynamicConnectivityMatchesBruteForce() {
+        Random random = new Random(4);
+        int n = 30;
+        DynamicConnectivity connectivity = new DynamicConnectivity(n);
+        List<int[]> edges = new ArrayList<int[]>();
+        List<Boolean> expected = new ArrayList<Boolean>();
+        for (int round = 0; round < 3000; ++round) {
+            int op = random.nextInt(3);
+            if (0 == op) {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                connectivity.addEdge(p, q);
+                edges.add(new int[] { p, q });
+            } else if (1 == op && !edges.isEmpty()) {
+                int[] edge = edges.remove(random.nextInt(edges.size()));
+                connectivity.removeEdge(edge[0], edge[1]);
+            } else {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                BruteForce current = new BruteForce(n);
+                for (int[] edge : edges) {
+                    current.union(edge[0], edge[1]);
+                }
+                assertEquals(expected.size(), connectivity.query(p, q));
+                expected.add(current.isConnected(p, q));
+            }
+        }
+
+        boolean[] answers = connectivity.solve();
+        assertEquals(expected.size(), answers.length);
+        for (int i = 0; i < answers.length; ++i) {
+            assertEquals(expected.get(i), answers[i]);
+        }
+    }
+
+    /**
+     * 直接维护每个元素的集合编号，合并时修改所有元素的编号
+     */
+    private static class BruteForce {
+
+        private int[] ids;
+
+        public BruteForce(int n) {
+            ids = new int[n];
+            for (int i = 0; i < n; ++i) {
+                ids[i] = i;
+            }
+        }
+
+        public void union(int p, int q) {
+            int from = ids[p];
+            int to = ids[q];
+            for (int i = 0; i < ids.length; ++i) {
+                if (ids[i] == from) {
+                    ids[i] = to;
+                }
+            }
+        }
+
+        public boolean isConnected(int p, int q) {
+            return ids[p] == ids[q];
+        }
+
+        public int count() {
+            int count = 0;
+            for (int i = 0; i < ids.length; ++i) {
+                if (ids[i] == i) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        public int sizeOf(int p) {
+            int size = 0;
+            for (int id : ids) {
+                if (id == ids[p]) {
+                    ++size;
+                }
+            }
+            return size;
+        }
+
+        public BruteForce copy() {
+            BruteForce copy = new BruteForce(0);
+            copy.ids = ids.clone();
+            return copy;
+        }
+    }
+}